@@ -0,0 +1,149 @@
+package nl.gerimedica.assignment.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adjusts itself from observed latency (AIMD with a
+ * latency gradient). A short-term moving average of latency is compared with a
+ * slow long-term baseline: the limit grows by one while the two stay close and
+ * the limit is actually being used, and is cut multiplicatively when the
+ * short-term average rises beyond {@code tolerance} times the baseline or a
+ * request fails. Averages rather than single samples are compared, so one
+ * unusually fast or slow request does not move the limit. Acquiring a permit is
+ * lock-free; only samples take a short lock.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // The first samples are averaged into the baseline before the gradient is
+    // used, so the baseline does not start from whatever request happened to be first.
+    private static final int WARMUP_SAMPLES = 10;
+    // Weight of a new sample in the short-term average (about the last 5 requests).
+    private static final double SHORT_SMOOTHING = 0.2;
+    // Weight of a new sample in the baseline (about the last 50 requests), slow enough
+    // to follow a changed workload without chasing a burst of overload.
+    private static final double LONG_SMOOTHING = 0.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private int samples;
+
+    /**
+     * @param initialLimit Starting limit
+     * @param minLimit     Lower bound the limit never drops below
+     * @param maxLimit     Upper bound the limit never grows above
+     * @param tolerance    Latency ratio to the baseline considered overload, e.g. 2.0
+     * @param backoffRatio Factor applied to the limit on overload, e.g. 0.9
+     * @throws IllegalArgumentException if the bounds or ratios are inconsistent
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1.0 || backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("Tolerance must be >= 1 and backoff ratio in (0, 1)");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Tries to take a permit without blocking.
+     * 
+     * @return true if the request may proceed; it must then call
+     *         {@link #onSample} or {@link #release} exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the observed latency into the limit.
+     * 
+     * @param rttNanos Latency of the request
+     * @param dropped  Whether the request failed because of overload (e.g. 5xx)
+     */
+    public void onSample(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (this) {
+            double current = limit;
+            if (dropped) {
+                // A failed request's latency says nothing about healthy latency, so it
+                // only cuts the limit and is kept out of the averages.
+                limit = Math.max(minLimit, current * backoffRatio);
+                return;
+            }
+
+            boolean overloaded = false;
+            if (samples < WARMUP_SAMPLES) {
+                samples++;
+                shortRttNanos += (rttNanos - shortRttNanos) / samples;
+                longRttNanos = shortRttNanos;
+            } else {
+                shortRttNanos += (rttNanos - shortRttNanos) * SHORT_SMOOTHING;
+                longRttNanos += (rttNanos - longRttNanos) * LONG_SMOOTHING;
+                overloaded = shortRttNanos > longRttNanos * tolerance;
+            }
+
+            if (overloaded) {
+                limit = Math.max(minLimit, current * backoffRatio);
+            } else if (inFlightAtCompletion * 2 >= current) {
+                // Only grow while at least half the limit is in use, otherwise an
+                // idle endpoint would drift up to maxLimit without evidence.
+                limit = Math.min(maxLimit, current + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns a permit without affecting the limit, for requests whose latency
+     * says nothing about overload (e.g. long-running streams).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isSaturated() {
+        return getInFlight() >= getLimit();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,141 @@
+package nl.gerimedica.assignment.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.EndpointLimitDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of per-endpoint adaptive concurrency limits. Each limited endpoint
+ * gets its own limiter so a burst on one cannot starve the others, and bulk
+ * endpoints are additionally shed while any interactive endpoint is saturated.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    /**
+     * Result of an admission attempt.
+     */
+    public enum Decision {
+        ADMITTED,
+        REJECTED,
+        SHED,
+        UNLIMITED
+    }
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    @Autowired
+    public AdmissionControl(
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.initial-limit:10}") int initialLimit,
+            @Value("${admission.min-limit:1}") int minLimit,
+            @Value("${admission.max-limit:100}") int maxLimit,
+            @Value("${admission.latency-tolerance:2.0}") double tolerance,
+            @Value("${admission.backoff-ratio:0.9}") double backoffRatio) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+
+        register("GET /api/appointments/latest", EndpointPriority.INTERACTIVE);
+        register("GET /api/appointments-by-reason", EndpointPriority.INTERACTIVE);
+        register("DELETE /api/delete-appointments", EndpointPriority.INTERACTIVE);
+        register("POST /api/bulk-appointments", EndpointPriority.BULK);
+        register("GET /api/appointments/export", EndpointPriority.BULK);
+    }
+
+    private void register(String endpoint, EndpointPriority priority) {
+        endpoints.put(endpoint, new Endpoint(endpoint, priority,
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, backoffRatio),
+                new LongAdder()));
+    }
+
+    /**
+     * Tries to admit a request to the given endpoint.
+     * 
+     * @param endpoint Endpoint key in the form "METHOD /path"
+     * @return UNLIMITED if the endpoint is not limited, ADMITTED if a permit was
+     *         taken, REJECTED if the endpoint is at its limit, or SHED if it is a
+     *         bulk endpoint and interactive traffic needs the capacity
+     */
+    public Decision tryAdmit(String endpoint) {
+        Endpoint target = enabled ? endpoints.get(endpoint) : null;
+        if (target == null) {
+            return Decision.UNLIMITED;
+        }
+        if (target.priority() == EndpointPriority.BULK && isInteractiveSaturated()) {
+            target.shed().increment();
+            log.warn("Shedding bulk request to {} while interactive endpoints are saturated", endpoint);
+            return Decision.SHED;
+        }
+        if (!target.limiter().tryAcquire()) {
+            log.warn("Rejecting request to {}, concurrency limit {} reached", endpoint,
+                    target.limiter().getLimit());
+            return Decision.REJECTED;
+        }
+        return Decision.ADMITTED;
+    }
+
+    /**
+     * Returns the permit of an admitted request and records its latency.
+     * 
+     * @param endpoint     Endpoint key the request was admitted to
+     * @param rttNanos     Request latency
+     * @param dropped      Whether the request failed with a server error
+     * @param recordSample False for requests whose latency is not meaningful,
+     *                     such as streamed responses
+     */
+    public void complete(String endpoint, long rttNanos, boolean dropped, boolean recordSample) {
+        Endpoint target = endpoints.get(endpoint);
+        if (target == null) {
+            return;
+        }
+        if (recordSample) {
+            target.limiter().onSample(rttNanos, dropped);
+        } else {
+            target.limiter().release();
+        }
+    }
+
+    private boolean isInteractiveSaturated() {
+        for (Endpoint endpoint : endpoints.values()) {
+            if (endpoint.priority() == EndpointPriority.INTERACTIVE && endpoint.limiter().isSaturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Current limit, in-flight count and accept/reject/shed counters per
+     *         endpoint
+     */
+    public List<EndpointLimitDTO> snapshot() {
+        return endpoints.values().stream()
+                .map(e -> new EndpointLimitDTO(e.name(), e.priority().name(), e.limiter().getLimit(),
+                        e.limiter().getInFlight(), e.limiter().getAcceptedCount(),
+                        e.limiter().getRejectedCount(), e.shed().sum()))
+                .toList();
+    }
+
+    private record Endpoint(String name, EndpointPriority priority, AdaptiveConcurrencyLimiter limiter,
+            LongAdder shed) {
+    }
+}
@@ -0,0 +1,132 @@
+package nl.gerimedica.assignment.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link AdmissionControl} in front of the controllers. Requests over
+ * the limit are answered immediately with 503 and a Retry-After header (429 for
+ * shed bulk requests) before they reach the service layer or take a database
+ * connection.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+    private final String retryAfterSeconds;
+
+    @Autowired
+    public AdmissionControlFilter(AdmissionControl admissionControl,
+            @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.admissionControl = admissionControl;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String endpoint = request.getMethod() + " " + path;
+        AdmissionControl.Decision decision = admissionControl.tryAdmit(endpoint);
+        switch (decision) {
+            case UNLIMITED -> {
+                chain.doFilter(request, response);
+                return;
+            }
+            case REJECTED -> {
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry later");
+                return;
+            }
+            case SHED -> {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS,
+                        "Bulk requests are temporarily deferred, please retry later");
+                return;
+            }
+            case ADMITTED -> {
+                // Proceed below.
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // Streamed responses hold their permit until the stream ends, but their
+                // duration says nothing about overload, so no latency sample is taken.
+                request.getAsyncContext().addListener(new ReleasingListener(endpoint));
+            } else {
+                boolean dropped = failed || response.getStatus() >= 500;
+                // Client errors (an empty keyword, an unknown SSN) return before doing the
+                // real work, so their latency would only skew the baseline.
+                boolean clientError = !dropped && response.getStatus() >= 400;
+                admissionControl.complete(endpoint, System.nanoTime() - start, dropped, !clientError);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+        private final String endpoint;
+        private boolean released;
+
+        ReleasingListener(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private synchronized void releaseOnce() {
+            if (!released) {
+                released = true;
+                admissionControl.complete(endpoint, 0, false, false);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
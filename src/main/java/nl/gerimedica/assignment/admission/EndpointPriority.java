@@ -0,0 +1,10 @@
+package nl.gerimedica.assignment.admission;
+
+/**
+ * Admission priority of an endpoint. Bulk endpoints are shed first whenever an
+ * interactive endpoint is saturated.
+ */
+public enum EndpointPriority {
+    INTERACTIVE,
+    BULK
+}
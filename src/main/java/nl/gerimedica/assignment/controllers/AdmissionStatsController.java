@@ -0,0 +1,31 @@
+package nl.gerimedica.assignment.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import nl.gerimedica.assignment.admission.AdmissionControl;
+import nl.gerimedica.assignment.dto.EndpointLimitDTO;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admission")
+public class AdmissionStatsController {
+
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public AdmissionStatsController(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    // Exposes the current adaptive limit and reject counters of every limited endpoint.
+    @GetMapping("/limits")
+    public ResponseEntity<List<EndpointLimitDTO>> getLimits() {
+        return new ResponseEntity<>(admissionControl.snapshot(), HttpStatus.OK);
+    }
+}
@@ -1,31 +1,56 @@
 package nl.gerimedica.assignment.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.gerimedica.assignment.dto.AppointmentDTO;
+import nl.gerimedica.assignment.dto.AppointmentField;
+import nl.gerimedica.assignment.dto.AppointmentExportFilter;
+import nl.gerimedica.assignment.dto.BookingCalendarDTO;
 import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
 import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.idempotency.IdempotencyStore;
 import nl.gerimedica.assignment.services.HospitalService;
+import nl.gerimedica.assignment.services.export.AppointmentExportService;
+import nl.gerimedica.assignment.services.export.ExportFormat;
 
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
 @Slf4j
 public class AppointmentController {
 
+    // Upper bound on the calendar range so a single request cannot enumerate years of days.
+    private static final long MAX_CALENDAR_DAYS = 366;
+
     private final HospitalService hospitalService;
+    private final AppointmentExportService exportService;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
     // Constructor-based dependency injection is preferred for better testability
     // and immutability.
-    public AppointmentController(HospitalService hospitalService) {
+    public AppointmentController(HospitalService hospitalService, AppointmentExportService exportService,
+            IdempotencyStore idempotencyStore) {
         this.hospitalService = hospitalService;
+        this.exportService = exportService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -33,13 +58,27 @@ public class AppointmentController {
      * "reasons": ["Checkup", "Follow-up", "X-Ray"],
      * "dates": ["2025-02-01", "2025-02-15", "2025-03-01"]
      * }
+     * Clients that retry on timeouts should send an Idempotency-Key header: a
+     * retry with the same key returns the original response instead of inserting
+     * the appointments again.
      */
     @PostMapping("/bulk-appointments")
     public ResponseEntity<?> createBulkAppointments(
             @RequestParam String patientName,
             @RequestParam String ssn,
-            @RequestBody BulkAppointmentsDTO payload) {
+            @RequestBody BulkAppointmentsDTO payload,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+            return doCreateBulkAppointments(patientName, ssn, payload);
+        }
+        String fingerprint = IdempotencyStore.fingerprint(patientName, ssn,
+                payload == null ? null : payload.getReasons(), payload == null ? null : payload.getDates());
+        return idempotencyStore.execute(idempotencyKey.trim(), fingerprint,
+                () -> doCreateBulkAppointments(patientName, ssn, payload));
+    }
 
+    private ResponseEntity<?> doCreateBulkAppointments(String patientName, String ssn, BulkAppointmentsDTO payload) {
         try {
             List<Appointment> created = hospitalService.bulkCreateAppointments(patientName, ssn, payload);
             return new ResponseEntity<>(AppointmentDTO.fromEntities(created), HttpStatus.CREATED);
@@ -53,14 +92,23 @@ public class AppointmentController {
     }
 
     @GetMapping("/appointments-by-reason")
-    public ResponseEntity<?> getAppointmentsByReason(@RequestParam String keyword) {
+    // Example: /api/appointments-by-reason?keyword=Checkup&fields=id,date
+    public ResponseEntity<?> getAppointmentsByReason(@RequestParam String keyword,
+            @RequestParam(required = false) String fields) {
         try {
         if (keyword == null || keyword.trim().isEmpty()) {
             return new ResponseEntity<>(Map.of("error", "Search keyword cannot be empty"), 
                 HttpStatus.BAD_REQUEST);
         }  
+        List<AppointmentField> selected = AppointmentField.parse(fields);
+        if (!selected.isEmpty()) {
+            return new ResponseEntity<>(hospitalService.getAppointmentFieldsByReason(keyword, selected),
+                HttpStatus.OK);
+        }
         List<Appointment> found = hospitalService.getAppointmentsByReason(keyword);
         return new ResponseEntity<>(AppointmentDTO.fromEntities(found), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+        return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
     } catch (Exception e) {
         log.error("Error retrieving appointments by reason", e);
         return new ResponseEntity<>(Map.of("error", "Failed to retrieve appointments"), 
@@ -82,8 +130,19 @@ public class AppointmentController {
     }
 
     @GetMapping("/appointments/latest")
-    public ResponseEntity<?> getLatestAppointment(@RequestParam String ssn) {
+    // Example: /api/appointments/latest?ssn=123-45-6789&fields=id,date
+    public ResponseEntity<?> getLatestAppointment(@RequestParam String ssn,
+            @RequestParam(required = false) String fields) {
         try {
+            List<AppointmentField> selected = AppointmentField.parse(fields);
+            if (!selected.isEmpty()) {
+                Map<String, Object> latest = hospitalService.findLatestAppointmentFieldsBySSN(ssn, selected);
+                if (latest == null) {
+                    return new ResponseEntity<>(Map.of("message", "No appointments found for SSN: " + ssn), 
+                        HttpStatus.NOT_FOUND);
+                }
+                return new ResponseEntity<>(latest, HttpStatus.OK);
+            }
             Appointment latest = hospitalService.findLatestAppointmentBySSN(ssn);
             if (latest == null) {
                 return new ResponseEntity<>(Map.of("message", "No appointments found for SSN: " + ssn), 
@@ -94,4 +153,71 @@ public class AppointmentController {
             return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
         }
     }
+
+    /**
+     * Streams all appointments, joined with patient data, as CSV or gzipped CSV.
+     * The body is written from a database cursor while the response is being
+     * sent, so the full result is never held in memory.
+     * Example: /api/appointments/export?format=csv.gz&from=2025-01-01&reason=Checkup
+     */
+    @GetMapping("/appointments/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String reason) {
+        // The body type must stay StreamingResponseBody for Spring to stream it, so
+        // validation errors are raised instead of returned as an error map.
+        ExportFormat exportFormat;
+        AppointmentExportFilter filter;
+        try {
+            exportFormat = ExportFormat.fromParam(format);
+            filter = AppointmentExportFilter.of(from, to, reason);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody body = out -> exportService.export(filter, exportFormat, Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"appointments." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Lists the days a patient is booked and free within a date range, answered
+     * from the in-memory booking calendar without querying the database.
+     * Example: /api/appointments/calendar?ssn=123-45-6789&from=2025-02-01&to=2025-02-28
+     */
+    @GetMapping("/appointments/calendar")
+    public ResponseEntity<?> getBookingCalendar(@RequestParam String ssn, @RequestParam String from,
+            @RequestParam String to) {
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(from);
+            end = LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>(Map.of("error", "from and to must be ISO dates (yyyy-MM-dd)"),
+                HttpStatus.BAD_REQUEST);
+        }
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_CALENDAR_DAYS) {
+            return new ResponseEntity<>(Map.of("error", "Date range must be between 1 and " + MAX_CALENDAR_DAYS
+                + " days"), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            List<LocalDate> booked = hospitalService.findBookedDays(ssn, start, end);
+            Set<LocalDate> bookedSet = new HashSet<>(booked);
+            List<String> free = new ArrayList<>();
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                if (!bookedSet.contains(day)) {
+                    free.add(day.toString());
+                }
+            }
+            return new ResponseEntity<>(new BookingCalendarDTO(ssn, start.toString(), end.toString(),
+                booked.stream().map(LocalDate::toString).toList(), free), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package nl.gerimedica.assignment.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import nl.gerimedica.assignment.feed.AppointmentChangeFeed;
+import nl.gerimedica.assignment.feed.ChangeFeedSubscription;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api")
+public class ChangeFeedController {
+
+    private final AppointmentChangeFeed changeFeed;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+
+    @Autowired
+    public ChangeFeedController(AppointmentChangeFeed changeFeed,
+            @Value("${changes.emitter-timeout-minutes:30}") long emitterTimeoutMinutes,
+            @Value("${changes.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.changeFeed = changeFeed;
+        this.emitterTimeoutMillis = TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes);
+        this.heartbeatMillis = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+    }
+
+    /**
+     * Server-Sent Events feed of appointment creations and deletions, replacing
+     * polling /appointments-by-reason. New consumers start at the current end of
+     * the feed; reconnecting consumers resume after the Last-Event-ID they sent,
+     * or receive a "reset" event if it was issued before a restart.
+     */
+    @GetMapping(path = "/appointments/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        long startAfter;
+        if (lastEventId == null || lastEventId.trim().isEmpty()) {
+            startAfter = changeFeed.getLatestSequence();
+        } else {
+            try {
+                startAfter = changeFeed.sequenceOf(lastEventId);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        new ChangeFeedSubscription(changeFeed, emitter, startAfter, heartbeatMillis).start();
+        return emitter;
+    }
+}
@@ -0,0 +1,18 @@
+package nl.gerimedica.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+// One entry of the appointment change feed. Sequence numbers increase monotonically
+// within a run and, qualified with the run's epoch, form the SSE event id consumers resume from.
+public class AppointmentChangeEventDTO {
+    private long sequence;
+    private String type;
+    private Long appointmentId;
+    private String reason;
+    private String date;
+    private String patientSSN;
+    private long timestamp;
+}
@@ -0,0 +1,52 @@
+package nl.gerimedica.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Optional filters for the bulk export. A null field means "no restriction".
+// Dates are ISO-8601 (yyyy-MM-dd) strings, so they compare lexicographically.
+public class AppointmentExportFilter {
+    private String fromDate;
+    private String toDate;
+    private String reason;
+
+    /**
+     * Builds a filter from user input. Dates are validated and normalized to
+     * yyyy-MM-dd, since a date like 2025-6-1 would otherwise compare as a string
+     * against every stored date and silently match the wrong rows.
+     * 
+     * @param fromDate First day to include, or null/blank for no lower bound
+     * @param toDate   Last day to include, or null/blank for no upper bound
+     * @param reason   Reason to match, or null/blank for any reason
+     * @return The filter with blank values as null
+     * @throws IllegalArgumentException if a date is not an ISO date or from is
+     *                                  after to
+     */
+    public static AppointmentExportFilter of(String fromDate, String toDate, String reason) {
+        LocalDate from = parseDate("from", fromDate);
+        LocalDate to = parseDate("to", toDate);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return new AppointmentExportFilter(from == null ? null : from.toString(), to == null ? null : to.toString(),
+                reason == null || reason.trim().isEmpty() ? null : reason.trim());
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date (yyyy-MM-dd): " + value);
+        }
+    }
+}
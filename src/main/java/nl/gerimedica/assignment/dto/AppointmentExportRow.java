@@ -0,0 +1,16 @@
+package nl.gerimedica.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+// Flat projection of an appointment joined with its patient, used by the bulk export.
+// Being a plain DTO (not an entity), rows are never added to the persistence context.
+public class AppointmentExportRow {
+    private Long id;
+    private String reason;
+    private String date;
+    private String patientName;
+    private String patientSSN;
+}
@@ -0,0 +1,71 @@
+package nl.gerimedica.assignment.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fields of AppointmentDTO that callers can select with the fields= parameter, mapped to
+// the JPQL path they are read from. Patient fields require joining the patient table.
+public enum AppointmentField {
+    ID("id", "a.id", false),
+    REASON("reason", "a.reason", false),
+    DATE("date", "a.date", false),
+    PATIENT_NAME("patientName", "p.name", true),
+    PATIENT_SSN("patientSSN", "p.ssn", true);
+
+    private final String jsonName;
+    private final String path;
+    private final boolean patientField;
+
+    AppointmentField(String jsonName, String path, boolean patientField) {
+        this.jsonName = jsonName;
+        this.path = path;
+        this.patientField = patientField;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isPatientField() {
+        return patientField;
+    }
+
+    /**
+     * Parses a comma-separated field list such as "id,date".
+     * 
+     * @param fields Field names as they appear in AppointmentDTO
+     * @return The fields in request order without duplicates, or an empty list
+     *         if the parameter is null or blank (meaning "all fields")
+     * @throws IllegalArgumentException if a field name is unknown
+     */
+    public static List<AppointmentField> parse(String fields) {
+        List<AppointmentField> parsed = new ArrayList<>();
+        if (fields == null || fields.trim().isEmpty()) {
+            return parsed;
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            AppointmentField field = fromJsonName(trimmed);
+            if (!parsed.contains(field)) {
+                parsed.add(field);
+            }
+        }
+        return parsed;
+    }
+
+    private static AppointmentField fromJsonName(String name) {
+        for (AppointmentField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
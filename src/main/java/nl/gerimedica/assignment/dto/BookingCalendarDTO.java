@@ -0,0 +1,17 @@
+package nl.gerimedica.assignment.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+// Booked and free days of one patient within a date range.
+public class BookingCalendarDTO {
+    private String ssn;
+    private String from;
+    private String to;
+    private List<String> bookedDays;
+    private List<String> freeDays;
+}
@@ -0,0 +1,18 @@
+package nl.gerimedica.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+// Snapshot of the admission-control state of one endpoint.
+public class EndpointLimitDTO {
+    private String endpoint;
+    private String priority;
+    private int limit;
+    private int inFlight;
+    private long accepted;
+    private long rejected;
+    // Bulk requests turned away to keep capacity for interactive endpoints.
+    private long shed;
+}
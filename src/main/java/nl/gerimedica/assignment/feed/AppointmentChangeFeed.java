@@ -0,0 +1,173 @@
+package nl.gerimedica.assignment.feed;
+
+import nl.gerimedica.assignment.dto.AppointmentChangeEventDTO;
+import nl.gerimedica.assignment.entities.Appointment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory ring buffer of appointment changes. Writers append in
+ * constant time and never wait for consumers; each consumer keeps its own
+ * cursor (the last sequence it has seen) and reads forward from it. A consumer
+ * that falls more than the buffer capacity behind finds its next event
+ * overwritten and has to resynchronize.
+ * <p>
+ * Sequences only live as long as the process, so event ids carry the epoch of
+ * the run that issued them; a cursor from an earlier run, or one ahead of the
+ * feed, is reported as a gap rather than waited on.
+ * <p>
+ * Consumers wait on a {@link Condition} rather than a monitor, so consumers on
+ * virtual threads unmount while idle instead of pinning a carrier thread.
+ */
+@Component
+public class AppointmentChangeFeed {
+
+    public static final String CREATED = "created";
+    public static final String DELETED = "deleted";
+    // Cursor for an event id issued by another run of the application.
+    public static final long UNKNOWN_POSITION = -1;
+
+    private final AppointmentChangeEventDTO[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    // Sequence number the next published event will get; sequences start at 1.
+    private long nextSequence = 1;
+    // Identifies this run; restarts get a different epoch.
+    private final long epoch = System.currentTimeMillis();
+
+    @Autowired
+    public AppointmentChangeFeed(@Value("${changes.buffer-capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Change feed capacity must be positive");
+        }
+        this.ring = new AppointmentChangeEventDTO[capacity];
+    }
+
+    /**
+     * Appends one event per appointment and wakes up waiting consumers.
+     * 
+     * @param type         CREATED or DELETED
+     * @param appointments Appointments that changed
+     */
+    public void publish(String type, Collection<Appointment> appointments) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (Appointment appointment : appointments) {
+                long sequence = nextSequence++;
+                String ssn = appointment.getPatient() != null ? appointment.getPatient().getSsn() : null;
+                ring[(int) (sequence % ring.length)] = new AppointmentChangeEventDTO(sequence, type,
+                        appointment.getId(), appointment.getReason(), appointment.getDate(), ssn, now);
+            }
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Sequence of the most recently published event, 0 if none
+     */
+    public long getLatestSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param sequence Sequence of an event
+     * @return SSE event id for the sequence, qualified with this run's epoch
+     */
+    public String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Parses an event id sent back by a reconnecting consumer.
+     * 
+     * @param eventId Id in the form issued by {@link #eventId}
+     * @return The sequence, or {@link #UNKNOWN_POSITION} if the id was issued by
+     *         another run (including plain sequence numbers)
+     * @throws IllegalArgumentException if the id is not a (qualified) number
+     */
+    public long sequenceOf(String eventId) {
+        String[] parts = eventId.trim().split("-", -1);
+        try {
+            if (parts.length == 1) {
+                Long.parseLong(parts[0]);
+                return UNKNOWN_POSITION;
+            }
+            if (parts.length == 2) {
+                long idEpoch = Long.parseLong(parts[0]);
+                long sequence = Long.parseLong(parts[1]);
+                return idEpoch == epoch && sequence >= 0 ? sequence : UNKNOWN_POSITION;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below.
+        }
+        throw new IllegalArgumentException("Last-Event-ID must be an event id from this feed");
+    }
+
+    /**
+     * Returns events published after the given sequence, waiting up to the
+     * timeout for at least one to arrive.
+     * 
+     * @param afterSequence Last sequence the consumer has seen, or
+     *                      {@link #UNKNOWN_POSITION}
+     * @param maxEvents     Maximum number of events to return
+     * @param timeoutMillis Maximum time to wait when no newer event exists
+     * @return The events, possibly empty on timeout, or a batch flagged as a gap
+     *         if events after the cursor have already been overwritten or the
+     *         cursor does not belong to this feed
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public Batch readAfter(long afterSequence, int maxEvents, long timeoutMillis)
+            throws InterruptedException {
+        lock.lock();
+        try {
+            if (afterSequence < 0 || afterSequence > nextSequence - 1) {
+                // Waiting would only resume once the feed caught up with a cursor from
+                // another run, silently skipping everything published until then.
+                return new Batch(List.of(), true);
+            }
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (afterSequence >= nextSequence - 1 && remainingNanos > 0) {
+                remainingNanos = published.awaitNanos(remainingNanos);
+            }
+
+            long oldestAvailable = Math.max(1, nextSequence - ring.length);
+            if (afterSequence + 1 < oldestAvailable) {
+                return new Batch(List.of(), true);
+            }
+            long last = Math.min(nextSequence - 1, afterSequence + maxEvents);
+            List<AppointmentChangeEventDTO> events = new ArrayList<>((int) Math.max(0, last - afterSequence));
+            for (long sequence = afterSequence + 1; sequence <= last; sequence++) {
+                events.add(ring[(int) (sequence % ring.length)]);
+            }
+            return new Batch(events, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Result of {@link #readAfter}.
+     * 
+     * @param events Events in sequence order
+     * @param gap    True if the consumer fell behind and missed events
+     */
+    public record Batch(List<AppointmentChangeEventDTO> events, boolean gap) {
+    }
+}
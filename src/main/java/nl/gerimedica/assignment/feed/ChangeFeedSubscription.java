@@ -0,0 +1,84 @@
+package nl.gerimedica.assignment.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.AppointmentChangeEventDTO;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Pumps change feed events to one SSE client from its own virtual thread, so a
+ * slow client only ever blocks itself. When it falls too far behind the ring
+ * buffer, or resumes from an id issued before a restart, it receives a "reset" event and is disconnected; it should then
+ * resynchronize with a full read and reconnect without Last-Event-ID.
+ */
+@Slf4j
+public class ChangeFeedSubscription implements Runnable {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final AppointmentChangeFeed feed;
+    private final SseEmitter emitter;
+    private final long heartbeatMillis;
+    private volatile boolean closed;
+    private long cursor;
+
+    public ChangeFeedSubscription(AppointmentChangeFeed feed, SseEmitter emitter, long startAfterSequence,
+            long heartbeatMillis) {
+        this.feed = feed;
+        this.emitter = emitter;
+        this.cursor = startAfterSequence;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * Registers the emitter callbacks and starts pumping on a virtual thread.
+     */
+    public void start() {
+        Thread thread = Thread.ofVirtual().name("change-feed-" + cursor).unstarted(this);
+        Runnable stop = () -> {
+            closed = true;
+            thread.interrupt();
+        };
+        emitter.onCompletion(stop);
+        emitter.onTimeout(stop);
+        emitter.onError(e -> stop.run());
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                AppointmentChangeFeed.Batch batch = feed.readAfter(cursor, BATCH_SIZE, heartbeatMillis);
+                if (batch.gap()) {
+                    log.warn("Dropping change feed consumer that cannot resume at sequence {}", cursor);
+                    emitter.send(SseEmitter.event().name("reset").data(
+                            "Events after the last received event are not available, resynchronize and reconnect"));
+                    emitter.complete();
+                    return;
+                }
+                if (batch.events().isEmpty()) {
+                    // Keeps proxies from closing idle connections and detects gone clients.
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                for (AppointmentChangeEventDTO event : batch.events()) {
+                    emitter.send(SseEmitter.event()
+                            .id(feed.eventId(event.getSequence()))
+                            .name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    cursor = event.getSequence();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed.
+            log.debug("Change feed consumer disconnected at sequence {}", cursor);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package nl.gerimedica.assignment.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring store of responses keyed by the client's Idempotency-Key
+ * header. The first request with a key runs the action; retries with the same
+ * key get the stored response back, and retries arriving while the first one
+ * is still running wait for its result instead of running the action again.
+ * Server errors are not stored, so the client can retry them.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitTimeoutMillis;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public IdempotencyStore(
+            @Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${idempotency.wait-timeout-seconds:30}") long waitTimeoutSeconds) {
+        this(maxEntries, ttlSeconds, waitTimeoutSeconds, System::nanoTime);
+    }
+
+    // Package-private so tests can control time.
+    IdempotencyStore(int maxEntries, long ttlSeconds, long waitTimeoutSeconds, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.waitTimeoutMillis = TimeUnit.SECONDS.toMillis(waitTimeoutSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Computes a request fingerprint as the SHA-256 of the given parts. Each
+     * part is length-prefixed and collections are expanded element by element,
+     * so different requests cannot produce the same canonical input.
+     * 
+     * @param parts Request parameters and body fields, in a fixed order
+     * @return Hex-encoded SHA-256 digest
+     */
+    public static String fingerprint(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            appendCanonical(canonical, part);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void appendCanonical(StringBuilder canonical, Object part) {
+        if (part == null) {
+            canonical.append("N;");
+        } else if (part instanceof Collection<?> collection) {
+            canonical.append('L').append(collection.size()).append('[');
+            collection.forEach(element -> appendCanonical(canonical, element));
+            canonical.append("];");
+        } else {
+            String value = part.toString();
+            canonical.append('S').append(value.length()).append(':').append(value).append(';');
+        }
+    }
+
+    /**
+     * Runs the action once per idempotency key.
+     * 
+     * @param key         Client-supplied idempotency key
+     * @param fingerprint Digest of the request parameters and body, see
+     *                    {@link #fingerprint}; a key reused with a different
+     *                    request is rejected
+     * @param action      Produces the response for the first request
+     * @return The action's response, a stored or awaited replay of it, 422 if
+     *         the key was used for a different request, or 409 if the original
+     *         request is still running after the wait timeout
+     */
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            purgeExpired(now);
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(key, entry);
+                owner = true;
+                evictOverflow();
+            }
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            log.warn("Idempotency key {} reused with a different request", key);
+            return new ResponseEntity<>(Map.of("error", "Idempotency-Key was already used for a different request"),
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (!owner) {
+            return replay(key, entry);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            remove(key, entry);
+        } else {
+            entry.completedAt = nanoClock.getAsLong();
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(String key, Entry entry) {
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(Map.of("error", "A request with this Idempotency-Key is still in progress"),
+                    HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+        log.info("Replaying stored response for Idempotency-Key {}", key);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+    }
+
+    /**
+     * @return Number of keys currently stored, including in-flight requests
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    // Entries are kept in insertion order, which usually follows completion order, so
+    // scanning from the oldest entry stops at the first completed one still valid. An
+    // entry that completed earlier than an older one may be left behind; lookups check
+    // expiry themselves, so this only delays freeing it.
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.completedAt == 0) {
+                continue;
+            }
+            if (!isExpired(entry, now)) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.completedAt != 0 && now - entry.completedAt >= ttlNanos;
+    }
+
+    // Requests still running are never evicted, otherwise a retry arriving meanwhile
+    // would run the action a second time. The store may briefly exceed maxEntries.
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().completedAt != 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        // 0 while the original request is still running.
+        private volatile long completedAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
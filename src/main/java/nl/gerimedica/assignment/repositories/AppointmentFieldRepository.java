@@ -0,0 +1,17 @@
+package nl.gerimedica.assignment.repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import nl.gerimedica.assignment.dto.AppointmentField;
+
+// Queries that select only the requested appointment fields instead of whole entities.
+public interface AppointmentFieldRepository {
+
+    // This method finds the requested fields of appointments by their reason, ignoring case sensitivity.
+    List<Map<String, Object>> findFieldsByReasonIgnoreCase(String reason, List<AppointmentField> fields);
+
+    // This method finds the requested fields of the most recent appointment of a patient, if there is one.
+    Optional<Map<String, Object>> findLatestFieldsByPatientSsn(String ssn, List<AppointmentField> fields);
+}
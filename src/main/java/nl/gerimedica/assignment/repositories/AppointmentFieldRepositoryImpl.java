@@ -0,0 +1,68 @@
+package nl.gerimedica.assignment.repositories;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import nl.gerimedica.assignment.dto.AppointmentField;
+
+// Builds the select list from the whitelisted AppointmentField paths, so no caller input
+// ends up in the query text. The patient table is only joined when a patient field is requested.
+class AppointmentFieldRepositoryImpl implements AppointmentFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsByReasonIgnoreCase(String reason, List<AppointmentField> fields) {
+        String jpql = selectFrom(fields) + " WHERE LOWER(a.reason) = LOWER(:reason)";
+        return entityManager.createQuery(jpql, Tuple.class)
+                .setParameter("reason", reason)
+                .getResultList().stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findLatestFieldsByPatientSsn(String ssn, List<AppointmentField> fields) {
+        String jpql = selectFrom(fields)
+                + (joinsPatient(fields)
+                        ? " WHERE p.ssn = :ssn"
+                        // Filters on the foreign key column, so the patient table is not joined.
+                        : " WHERE a.patient.id IN (SELECT pt.id FROM Patient pt WHERE pt.ssn = :ssn)")
+                + " ORDER BY a.date DESC";
+        return entityManager.createQuery(jpql, Tuple.class)
+                .setParameter("ssn", ssn)
+                .setMaxResults(1)
+                .getResultList().stream()
+                .findFirst()
+                .map(tuple -> toMap(tuple, fields));
+    }
+
+    static String selectFrom(List<AppointmentField> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected");
+        }
+        String select = fields.stream()
+                .map(field -> field.getPath() + " AS " + field.getJsonName())
+                .collect(Collectors.joining(", "));
+        return "SELECT " + select + " FROM Appointment a" + (joinsPatient(fields) ? " JOIN a.patient p" : "");
+    }
+
+    private static boolean joinsPatient(List<AppointmentField> fields) {
+        return fields.stream().anyMatch(AppointmentField::isPatientField);
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, List<AppointmentField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (AppointmentField field : fields) {
+            row.put(field.getJsonName(), tuple.get(field.getJsonName()));
+        }
+        return row;
+    }
+}
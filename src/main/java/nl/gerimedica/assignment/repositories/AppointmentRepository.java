@@ -1,19 +1,43 @@
 package nl.gerimedica.assignment.repositories;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.dto.AppointmentExportRow;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentFieldRepository {
     // This method finds appointments by their reason, ignoring case sensitivity.
+    // The patient is fetched in the same query so results are fully initialized and can be shared
+    // between concurrent callers without touching a session.
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.patient WHERE LOWER(a.reason) = LOWER(:reason)")
     List<Appointment> findByReasonIgnoreCase(String reason);
 
     // This method finds appointments in descending order by date for a specific patient identified by their SSN.
-    @Query("SELECT a FROM Appointment a WHERE a.patient.ssn = :ssn ORDER BY a.date DESC")
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p WHERE p.ssn = :ssn ORDER BY a.date DESC")
     List<Appointment> findByPatientSsnOrderByDateDesc(String ssn);
+
+    // This method streams appointments joined with their patient off a forward-only cursor for the bulk export.
+    // The constructor projection keeps rows out of the persistence context, so memory stays constant.
+    // Must be consumed inside a transaction and closed afterwards.
+    @Query("SELECT new nl.gerimedica.assignment.dto.AppointmentExportRow(a.id, a.reason, a.date, p.name, p.ssn) "
+            + "FROM Appointment a JOIN a.patient p "
+            + "WHERE (:fromDate IS NULL OR a.date >= :fromDate) "
+            + "AND (:toDate IS NULL OR a.date <= :toDate) "
+            + "AND (:reason IS NULL OR LOWER(a.reason) = LOWER(:reason)) "
+            + "ORDER BY a.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<AppointmentExportRow> streamForExport(String fromDate, String toDate, String reason);
 }
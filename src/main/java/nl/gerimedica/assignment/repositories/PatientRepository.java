@@ -2,6 +2,8 @@ package nl.gerimedica.assignment.repositories;
 
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,4 +13,7 @@ import nl.gerimedica.assignment.entities.Patient;
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     // This method finds a patient by their SSN (Social Security Number). No need for fetching all patients and then filtering.
     Optional<Patient> findBySsn(String ssn);
+
+    // This method pages through patients by id (keyset pagination), so rows deleted behind the cursor do not shift pages.
+    Slice<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
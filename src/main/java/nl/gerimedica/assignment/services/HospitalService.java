@@ -1,19 +1,37 @@
 package nl.gerimedica.assignment.services;
 
 import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.AppointmentField;
 import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
 import nl.gerimedica.assignment.entities.Appointment;
 import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.feed.AppointmentChangeFeed;
 import nl.gerimedica.assignment.repositories.AppointmentRepository;
 import nl.gerimedica.assignment.repositories.PatientRepository;
+import nl.gerimedica.assignment.services.calendar.BookingCalendar;
 import nl.gerimedica.assignment.services.utils.HospitalUtils;
+import nl.gerimedica.assignment.services.utils.SingleFlight;
+import nl.gerimedica.assignment.sharding.ShardKey;
+import nl.gerimedica.assignment.sharding.ShardRouter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -22,30 +40,47 @@ public class HospitalService {
     private final PatientRepository patientRepo;
     private final AppointmentRepository appointmentRepo;
     private final HospitalUtils hospitalUtils;
+    private final AppointmentChangeFeed changeFeed;
+    private final ShardRouter shardRouter;
+    private final BookingCalendar bookingCalendar;
+
+    // Front-desk terminals ask for the same SSN or reason at the same moment; concurrent
+    // identical reads share one database call instead of each running their own.
+    private final SingleFlight<String, Appointment> latestBySsnFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<Appointment>> byReasonFlights = new SingleFlight<>();
 
     @Autowired
     // Constructor-based dependency injection is preferred for better testability
     // and immutability.
     public HospitalService(PatientRepository patientRepo, AppointmentRepository appointmentRepo,
-            HospitalUtils hospitalUtils) {
+            HospitalUtils hospitalUtils, AppointmentChangeFeed changeFeed, ShardRouter shardRouter,
+            BookingCalendar bookingCalendar) {
         this.patientRepo = patientRepo;
         this.appointmentRepo = appointmentRepo;
         this.hospitalUtils = hospitalUtils;
+        this.changeFeed = changeFeed;
+        this.shardRouter = shardRouter;
+        this.bookingCalendar = bookingCalendar;
     }
 
     /**
      * Creates multiple appointments for a patient in a single transaction.
      * If the patient doesn't exist yet, a new patient record will be created first.
+     * Runs on the shard owning the SSN. A patient can have at most one
+     * appointment per day, checked against the in-memory booking calendar.
      * 
      * @param patientName Name of the patient
      * @param ssn         Social Security Number of the patient
      * @param payload     DTO containing lists of appointment reasons and dates
      * @return List of created appointments
      * @throws IllegalArgumentException if reasons or dates are null, empty, or have
-     *                                  different sizes
+     *                                  different sizes, if a date is not an ISO
+     *                                  date, or if the patient is already booked on
+     *                                  one of the dates
      */
     @Transactional
-    public List<Appointment> bulkCreateAppointments(String patientName, String ssn, BulkAppointmentsDTO payload) {
+    public List<Appointment> bulkCreateAppointments(String patientName, @ShardKey String ssn,
+            BulkAppointmentsDTO payload) {
         Patient found = findPatientBySSN(ssn);
         if (found == null) {
             log.info("Creating new patient with SSN: {}", ssn);
@@ -67,6 +102,9 @@ public class HospitalService {
             throw new IllegalArgumentException("Reasons and dates must have the same number of entries.");
         }
 
+        List<LocalDate> days = bookDays(ssn, dates);
+        afterRollback(() -> bookingCalendar.release(ssn, days));
+
         // Using IntStream to create a list of appointments based on the reasons and
         // dates provided.
         final Patient finalFound = found;
@@ -83,6 +121,11 @@ public class HospitalService {
                     appt.getPatient().getSsn());
         }
 
+        afterCommit(() -> {
+            forgetInFlightReads(ssn, reasons);
+            changeFeed.publish(AppointmentChangeFeed.CREATED, createdAppointments);
+        });
+
         hospitalUtils.recordUsage("Bulk create appointments");
 
         return createdAppointments;
@@ -95,7 +138,7 @@ public class HospitalService {
      * @return Patient if found, null otherwise
      * @throws IllegalArgumentException if SSN is null or empty
      */
-    public Patient findPatientBySSN(String ssn) {
+    public Patient findPatientBySSN(@ShardKey String ssn) {
         // This method was inefficient because it fetched all patients and then filtered
         // them in memory.
         // Instead, I use the repository method that directly queries the database for
@@ -121,21 +164,30 @@ public class HospitalService {
 
     /**
      * Retrieves all appointments that match the given reason keyword.
-     * The search is case-insensitive.
+     * The search is case-insensitive. Concurrent calls for the same keyword share
+     * a single database query. When sharded, every shard is queried in parallel
+     * and the results are merged in id order.
      * 
      * @param reasonKeyword Keyword to search for in appointment reasons
-     * @return List of matching appointments
+     * @return Unmodifiable list of matching appointments
      */
     public List<Appointment> getAppointmentsByReason(String reasonKeyword) {
-
-        // Created a method in the AppointmentRepository to find by reason ignoring
-        // case.
-        // This is more efficient than fetching all appointments and filtering them in
-        // memory.
-        List<Appointment> matched = appointmentRepo.findByReasonIgnoreCase(reasonKeyword);
-        // The hospitalUtils has been replaced with a static method call.
-        hospitalUtils.recordUsage("Get appointments by reason");
-        return matched;
+        return byReasonFlights.execute(reasonKey(reasonKeyword), () -> {
+            // Created a method in the AppointmentRepository to find by reason ignoring
+            // case.
+            // This is more efficient than fetching all appointments and filtering them in
+            // memory.
+            // The list is shared between coalesced callers, so it is made unmodifiable.
+            List<Appointment> matched = shardRouter.isSharded()
+                    ? shardRouter.scatter(shard -> appointmentRepo.findByReasonIgnoreCase(reasonKeyword)).stream()
+                            .flatMap(List::stream)
+                            .sorted(Comparator.comparing(Appointment::getId))
+                            .toList()
+                    : List.copyOf(appointmentRepo.findByReasonIgnoreCase(reasonKeyword));
+            // The hospitalUtils has been replaced with a static method call.
+            hospitalUtils.recordUsage("Get appointments by reason");
+            return matched;
+        });
     }
 
     /**
@@ -147,7 +199,7 @@ public class HospitalService {
      *            deleted
      */
     @Transactional
-    public void deleteAppointmentsBySSN(String ssn) {
+    public void deleteAppointmentsBySSN(@ShardKey String ssn) {
 
         Patient patient = findPatientBySSN(ssn);
         if (patient == null) {
@@ -164,36 +216,239 @@ public class HospitalService {
         }
         appointmentRepo.deleteAll(appointments);
 
+        // Snapshot the lazy collection now rather than touching it after the transaction ends.
+        List<Appointment> deleted = List.copyOf(appointments);
+        afterCommit(() -> {
+            // Only the deleted days are freed: a concurrent create may have booked more
+            // days since the appointments were read, and those appointments still exist.
+            bookingCalendar.release(ssn, bookedDaysOf(deleted));
+            forgetInFlightReads(ssn, deleted.stream().map(Appointment::getReason).toList());
+            changeFeed.publish(AppointmentChangeFeed.DELETED, deleted);
+        });
+
         hospitalUtils.recordUsage("Delete appointments by SSN");
     }
 
     /**
      * Finds the most recent appointment for a patient identified by their SSN.
      * Appointments are ordered by date in descending order, and the first one is
-     * returned.
+     * returned. Concurrent calls for the same SSN share a single database query.
      * 
      * @param ssn Social Security Number of the patient
      * @return The most recent appointment, or null if no appointments are found
      * @throws IllegalArgumentException if SSN is null or empty
      */
-    public Appointment findLatestAppointmentBySSN(String ssn) {
+    public Appointment findLatestAppointmentBySSN(@ShardKey String ssn) {
 
         // Check if ssn is null or empty to avoid unnecessary database calls.
         if (ssn == null || ssn.trim().isEmpty()) {
             throw new IllegalArgumentException("SSN cannot be null or empty");
         }
 
-        // Using the repository method to find appointments by SSN in descending order.
-        List<Appointment> appointments = appointmentRepo.findByPatientSsnOrderByDateDesc(ssn);
-        if (appointments.isEmpty()) {
+        return latestBySsnFlights.execute(ssn, () -> {
+            // Using the repository method to find appointments by SSN in descending order.
+            List<Appointment> appointments = appointmentRepo.findByPatientSsnOrderByDateDesc(ssn);
+            if (appointments.isEmpty()) {
+                log.info("No appointments found for SSN: {}", ssn);
+                return null;
+            }
+
+            Appointment latest = appointments.get(0);
+            log.info("Found latest appointment for SSN: {} on date: {}", ssn, latest.getDate());
+
+            hospitalUtils.recordUsage("Find latest appointment by SSN");
+            return latest;
+        });
+    }
+
+    /**
+     * Retrieves only the requested fields of the appointments matching the given
+     * reason keyword. The query selects just those columns and joins the patient
+     * table only when a patient field is requested. When sharded, every shard is
+     * queried in parallel and the results are merged in id order if the id is
+     * among the fields, in shard order otherwise.
+     * 
+     * @param reasonKeyword Keyword to search for in appointment reasons
+     * @param fields        Fields to select, in response order
+     * @return One map per appointment from field name to value
+     * @throws IllegalArgumentException if no fields are given
+     */
+    public List<Map<String, Object>> getAppointmentFieldsByReason(String reasonKeyword,
+            List<AppointmentField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected");
+        }
+        List<Map<String, Object>> matched;
+        if (shardRouter.isSharded()) {
+            Stream<Map<String, Object>> merged = shardRouter
+                    .scatter(shard -> appointmentRepo.findFieldsByReasonIgnoreCase(reasonKeyword, fields)).stream()
+                    .flatMap(List::stream);
+            if (fields.contains(AppointmentField.ID)) {
+                String id = AppointmentField.ID.getJsonName();
+                merged = merged.sorted(Comparator.comparing(row -> (Long) row.get(id)));
+            }
+            matched = merged.toList();
+        } else {
+            matched = appointmentRepo.findFieldsByReasonIgnoreCase(reasonKeyword, fields);
+        }
+        hospitalUtils.recordUsage("Get appointments by reason");
+        return matched;
+    }
+
+    /**
+     * Finds only the requested fields of the most recent appointment for a
+     * patient. Unless a patient field is requested the patient table is not
+     * joined, and only the latest row is read.
+     * 
+     * @param ssn    Social Security Number of the patient
+     * @param fields Fields to select, in response order
+     * @return Map from field name to value, or null if no appointments are found
+     * @throws IllegalArgumentException if SSN is null or empty, or no fields are
+     *                                  given
+     */
+    public Map<String, Object> findLatestAppointmentFieldsBySSN(@ShardKey String ssn,
+            List<AppointmentField> fields) {
+        if (ssn == null || ssn.trim().isEmpty()) {
+            throw new IllegalArgumentException("SSN cannot be null or empty");
+        }
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected");
+        }
+        Map<String, Object> latest = appointmentRepo.findLatestFieldsByPatientSsn(ssn, fields).orElse(null);
+        if (latest == null) {
             log.info("No appointments found for SSN: {}", ssn);
             return null;
         }
-
-        Appointment latest = appointments.get(0);
-        log.info("Found latest appointment for SSN: {} on date: {}", ssn, latest.getDate());
-
         hospitalUtils.recordUsage("Find latest appointment by SSN");
         return latest;
     }
+
+    /**
+     * Returns the days within the range on which the patient already has an
+     * appointment, answered from the in-memory booking calendar.
+     * 
+     * @param ssn  Social Security Number of the patient
+     * @param from First day of the range, inclusive
+     * @param to   Last day of the range, inclusive
+     * @return Booked days in order
+     * @throws IllegalArgumentException if SSN is null or empty
+     */
+    public List<LocalDate> findBookedDays(String ssn, LocalDate from, LocalDate to) {
+        if (ssn == null || ssn.trim().isEmpty()) {
+            throw new IllegalArgumentException("SSN cannot be null or empty");
+        }
+        return bookingCalendar.bookedDays(ssn, from, to);
+    }
+
+    /**
+     * Parses the payload dates and books them in the calendar, each check being
+     * a single bit test instead of a query per date.
+     * 
+     * @param ssn   Social Security Number of the patient
+     * @param dates ISO dates from the payload
+     * @return The booked days
+     * @throws IllegalArgumentException if a date is invalid, repeated in the
+     *                                  payload, or already booked
+     */
+    private List<LocalDate> bookDays(String ssn, List<String> dates) {
+        List<LocalDate> days = new ArrayList<>(dates.size());
+        Set<LocalDate> unique = new HashSet<>();
+        for (String date : dates) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(date == null ? "" : date);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Dates must be ISO dates (yyyy-MM-dd): " + date);
+            }
+            if (!unique.add(day)) {
+                throw new IllegalArgumentException("Date appears more than once in the request: " + day);
+            }
+            days.add(day);
+        }
+        List<LocalDate> conflicts = bookingCalendar.tryBook(ssn, days);
+        if (!conflicts.isEmpty()) {
+            log.warn("Rejected booking for SSN: {}, already booked on {}", ssn, conflicts);
+            throw new IllegalArgumentException("Patient already has an appointment on: " + conflicts);
+        }
+        return days;
+    }
+
+    /**
+     * @param appointments Appointments to collect the days of
+     * @return The days of the appointments, skipping dates that are not ISO
+     *         dates (these were never booked in the calendar)
+     */
+    private static List<LocalDate> bookedDaysOf(Collection<Appointment> appointments) {
+        List<LocalDate> days = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            try {
+                days.add(LocalDate.parse(appointment.getDate() == null ? "" : appointment.getDate()));
+            } catch (DateTimeParseException e) {
+                log.debug("Skipping unparsable appointment date {} when releasing bookings", appointment.getDate());
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Detaches in-flight reads affected by a write, so a caller starting after the
+     * write never joins a query that may have read the data before it.
+     * 
+     * @param ssn     SSN whose latest appointment may have changed
+     * @param reasons Reasons whose search results may have changed
+     */
+    private void forgetInFlightReads(String ssn, Collection<String> reasons) {
+        latestBySsnFlights.forget(ssn);
+        reasons.forEach(reason -> byReasonFlights.forget(reasonKey(reason)));
+    }
+
+    /**
+     * Runs the action once the current transaction has committed, so nothing is
+     * announced for a write that is rolled back. Runs immediately when no
+     * transaction is active.
+     * 
+     * @param action Action to run after commit
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action if the current transaction rolls back, to undo in-memory
+     * state that was updated optimistically. Does nothing without a transaction.
+     * 
+     * @param action Action to run after rollback
+     */
+    private void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    // Number of reads that joined another caller's in-flight query, for tests that
+    // need to know a concurrent caller has actually joined before releasing it.
+    long getCoalescedReadCount() {
+        return latestBySsnFlights.getCoalescedCount() + byReasonFlights.getCoalescedCount();
+    }
+
+    // The reason search is case-insensitive, so keywords differing only in case are the same read.
+    private static String reasonKey(String reason) {
+        return reason == null ? "" : reason.toLowerCase(Locale.ROOT);
+    }
 }
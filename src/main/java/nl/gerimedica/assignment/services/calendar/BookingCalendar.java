@@ -0,0 +1,185 @@
+package nl.gerimedica.assignment.services.calendar;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory calendar of the days each patient already has an appointment on.
+ * Every patient holds one bitset per calendar year (six longs, one bit per day
+ * of the year) in flat arrays, so a booked-day check is a binary search over the
+ * patient's years and a single bit test. A patient with appointments in one year
+ * takes roughly 200 bytes including the SSN key and map entry, 48 of them for
+ * the day bits. A patient's days are immutable and replaced atomically on every
+ * change, so lookups need no locking.
+ */
+@Component
+public class BookingCalendar {
+
+    private final ConcurrentMap<String, PatientDays> patients = new ConcurrentHashMap<>();
+
+    /**
+     * Books all given days for the patient, or none of them if any is taken.
+     * 
+     * @param ssn  Social Security Number of the patient
+     * @param days Days to book
+     * @return The days that were already booked; empty if the booking succeeded
+     */
+    public List<LocalDate> tryBook(String ssn, Collection<LocalDate> days) {
+        List<LocalDate> conflicts = new ArrayList<>();
+        patients.compute(ssn, (key, current) -> {
+            PatientDays calendar = current != null ? current : PatientDays.EMPTY;
+            for (LocalDate day : days) {
+                if (calendar.isSet(day)) {
+                    conflicts.add(day);
+                }
+            }
+            if (conflicts.isEmpty()) {
+                for (LocalDate day : days) {
+                    calendar = calendar.with(day);
+                }
+            }
+            return calendar.isEmpty() ? null : calendar;
+        });
+        return conflicts;
+    }
+
+    /**
+     * Marks a day as booked without checking for conflicts, used when rebuilding
+     * the calendar from stored appointments.
+     */
+    public void book(String ssn, LocalDate day) {
+        patients.compute(ssn, (key, current) -> (current != null ? current : PatientDays.EMPTY).with(day));
+    }
+
+    /**
+     * Frees days again, e.g. after the transaction that booked them rolled back
+     * or their appointments were deleted.
+     */
+    public void release(String ssn, Collection<LocalDate> days) {
+        patients.computeIfPresent(ssn, (key, calendar) -> {
+            PatientDays remaining = calendar;
+            for (LocalDate day : days) {
+                remaining = remaining.without(day);
+            }
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    public boolean isBooked(String ssn, LocalDate day) {
+        PatientDays calendar = patients.get(ssn);
+        return calendar != null && calendar.isSet(day);
+    }
+
+    /**
+     * @param ssn  Social Security Number of the patient
+     * @param from First day of the range, inclusive
+     * @param to   Last day of the range, inclusive
+     * @return Booked days within the range, in order
+     */
+    public List<LocalDate> bookedDays(String ssn, LocalDate from, LocalDate to) {
+        List<LocalDate> booked = new ArrayList<>();
+        PatientDays calendar = patients.get(ssn);
+        if (calendar == null) {
+            return booked;
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (calendar.isSet(day)) {
+                booked.add(day);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * @return Number of patients with at least one booked day
+     */
+    public int size() {
+        return patients.size();
+    }
+
+    // Immutable: changes return a copy, which ConcurrentHashMap.compute installs
+    // atomically, so readers always see a complete state without locking.
+    private static final class PatientDays {
+        private static final int WORDS_PER_YEAR = 6;
+        private static final PatientDays EMPTY = new PatientDays(new int[0], new long[0]);
+
+        // Years in ascending order; the days of years[i] are the six words
+        // starting at words[i * WORDS_PER_YEAR].
+        private final int[] years;
+        private final long[] words;
+
+        private PatientDays(int[] years, long[] words) {
+            this.years = years;
+            this.words = words;
+        }
+
+        boolean isSet(LocalDate day) {
+            int index = Arrays.binarySearch(years, day.getYear());
+            if (index < 0) {
+                return false;
+            }
+            int bit = day.getDayOfYear() - 1;
+            return (words[index * WORDS_PER_YEAR + (bit >>> 6)] & (1L << bit)) != 0;
+        }
+
+        PatientDays with(LocalDate day) {
+            if (isSet(day)) {
+                return this;
+            }
+            int index = Arrays.binarySearch(years, day.getYear());
+            int[] newYears = years;
+            long[] newWords;
+            if (index < 0) {
+                index = -index - 1;
+                newYears = new int[years.length + 1];
+                System.arraycopy(years, 0, newYears, 0, index);
+                newYears[index] = day.getYear();
+                System.arraycopy(years, index, newYears, index + 1, years.length - index);
+                newWords = new long[words.length + WORDS_PER_YEAR];
+                System.arraycopy(words, 0, newWords, 0, index * WORDS_PER_YEAR);
+                System.arraycopy(words, index * WORDS_PER_YEAR, newWords, (index + 1) * WORDS_PER_YEAR,
+                        words.length - index * WORDS_PER_YEAR);
+            } else {
+                newWords = words.clone();
+            }
+            int bit = day.getDayOfYear() - 1;
+            newWords[index * WORDS_PER_YEAR + (bit >>> 6)] |= 1L << bit;
+            return new PatientDays(newYears, newWords);
+        }
+
+        PatientDays without(LocalDate day) {
+            if (!isSet(day)) {
+                return this;
+            }
+            int index = Arrays.binarySearch(years, day.getYear());
+            int bit = day.getDayOfYear() - 1;
+            long[] newWords = words.clone();
+            newWords[index * WORDS_PER_YEAR + (bit >>> 6)] &= ~(1L << bit);
+            for (int i = 0; i < WORDS_PER_YEAR; i++) {
+                if (newWords[index * WORDS_PER_YEAR + i] != 0) {
+                    return new PatientDays(years, newWords);
+                }
+            }
+            // The year has no booked days left, drop it.
+            int[] newYears = new int[years.length - 1];
+            System.arraycopy(years, 0, newYears, 0, index);
+            System.arraycopy(years, index + 1, newYears, index, years.length - index - 1);
+            long[] remaining = new long[words.length - WORDS_PER_YEAR];
+            System.arraycopy(newWords, 0, remaining, 0, index * WORDS_PER_YEAR);
+            System.arraycopy(newWords, (index + 1) * WORDS_PER_YEAR, remaining, index * WORDS_PER_YEAR,
+                    remaining.length - index * WORDS_PER_YEAR);
+            return new PatientDays(newYears, remaining);
+        }
+
+        boolean isEmpty() {
+            return years.length == 0;
+        }
+    }
+}
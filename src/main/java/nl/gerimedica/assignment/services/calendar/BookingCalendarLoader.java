@@ -0,0 +1,77 @@
+package nl.gerimedica.assignment.services.calendar;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.AppointmentExportRow;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.sharding.ShardRouter;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the {@link BookingCalendar} from the stored appointments on startup,
+ * after all beans (including the shard schemas) are ready and before the web
+ * server starts accepting requests.
+ */
+@Component
+@Slf4j
+public class BookingCalendarLoader implements SmartInitializingSingleton {
+
+    private final BookingCalendar calendar;
+    private final AppointmentRepository appointmentRepo;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public BookingCalendarLoader(BookingCalendar calendar, AppointmentRepository appointmentRepo,
+            ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.calendar = calendar;
+        this.appointmentRepo = appointmentRepo;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        long loaded = 0;
+        for (int shard = 0; shard < shardRouter.getPhysicalShardCount(); shard++) {
+            Long shardLoaded = shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> loadShard()));
+            loaded += shardLoaded != null ? shardLoaded : 0;
+        }
+        log.info("Booking calendar rebuilt from {} appointments for {} patients in {} ms", loaded, calendar.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long loadShard() {
+        long loaded = 0;
+        long skipped = 0;
+        try (Stream<AppointmentExportRow> rows = appointmentRepo.streamForExport(null, null, null)) {
+            for (AppointmentExportRow row : (Iterable<AppointmentExportRow>) rows::iterator) {
+                if (row.getPatientSSN() == null || row.getDate() == null) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    calendar.book(row.getPatientSSN(), LocalDate.parse(row.getDate()));
+                    loaded++;
+                } catch (DateTimeParseException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} appointments without a valid ISO date while rebuilding the booking calendar",
+                    skipped);
+        }
+        return loaded;
+    }
+}
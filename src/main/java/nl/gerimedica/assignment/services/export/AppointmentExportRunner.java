@@ -0,0 +1,67 @@
+package nl.gerimedica.assignment.services.export;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.AppointmentExportFilter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command-line export task. Only active when {@code export.output} is set, e.g.
+ * 
+ * <pre>
+ * java -jar assignment.jar --spring.main.web-application-type=none \
+ *     --export.output=/tmp/appointments.csv.gz --export.format=csv.gz \
+ *     --export.from=2025-01-01 --export.to=2025-12-31 --export.reason=Checkup
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "export.output")
+@Slf4j
+public class AppointmentExportRunner implements ApplicationRunner {
+
+    private final AppointmentExportService exportService;
+    private final String output;
+    private final String format;
+    private final String fromDate;
+    private final String toDate;
+    private final String reason;
+
+    @Autowired
+    public AppointmentExportRunner(AppointmentExportService exportService,
+            @Value("${export.output}") String output,
+            @Value("${export.format:csv}") String format,
+            @Value("${export.from:#{null}}") String fromDate,
+            @Value("${export.to:#{null}}") String toDate,
+            @Value("${export.reason:#{null}}") String reason) {
+        this.exportService = exportService;
+        this.output = output;
+        this.format = format;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.reason = reason;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        // Invalid options throw IllegalArgumentException, which fails the run.
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        AppointmentExportFilter filter = AppointmentExportFilter.of(fromDate, toDate, reason);
+        Path path = Path.of(output);
+        log.info("Exporting appointments to {} as {}", path.toAbsolutePath(), exportFormat.getExtension());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ExportResult result = exportService.export(filter, exportFormat, channel);
+            log.info("Export finished: {} rows, {} bytes, {} rows/sec", result.rows(), result.bytes(),
+                    String.format("%.0f", result.rowsPerSecond()));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package nl.gerimedica.assignment.services.export;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.dto.AppointmentExportFilter;
+import nl.gerimedica.assignment.dto.AppointmentExportRow;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.services.utils.HospitalUtils;
+import nl.gerimedica.assignment.sharding.ShardRouter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+public class AppointmentExportService {
+
+    static final String HEADER = "id,reason,date,patientName,patientSSN";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+
+    private final AppointmentRepository appointmentRepo;
+    private final HospitalUtils hospitalUtils;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public AppointmentExportService(AppointmentRepository appointmentRepo, HospitalUtils hospitalUtils,
+            ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.appointmentRepo = appointmentRepo;
+        this.hospitalUtils = hospitalUtils;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams every appointment matching the filter, joined with its patient, to
+     * the given channel. Rows are read off a forward-only cursor and encoded
+     * through a single fixed-size buffer, so memory usage does not depend on the
+     * number of rows exported. When sharded, shards are exported one after the
+     * other, each in its own read-only transaction. The channel is not closed by
+     * this method.
+     * 
+     * @param filter  Optional date range and reason filters, may be null
+     * @param format  Output format
+     * @param channel Destination channel, e.g. a FileChannel or an HTTP response
+     * @return Row count, byte count and timing of the export
+     * @throws IOException if writing to the channel fails
+     */
+    public ExportResult export(AppointmentExportFilter filter, ExportFormat format, WritableByteChannel channel)
+            throws IOException {
+        AppointmentExportFilter criteria = filter != null ? filter : new AppointmentExportFilter();
+        long start = System.nanoTime();
+
+        CountingChannel counting = new CountingChannel(channel);
+        GZIPOutputStream gzip = null;
+        WritableByteChannel target = counting;
+        if (format == ExportFormat.CSV_GZIP) {
+            // Wrap the (non-closing) counting channel so finishing the gzip trailer
+            // does not close the caller's channel.
+            gzip = new GZIPOutputStream(Channels.newOutputStream(counting), BUFFER_SIZE);
+            target = Channels.newChannel(gzip);
+        }
+
+        ChannelLineWriter writer = new ChannelLineWriter(target);
+        writer.writeLine(HEADER);
+        long rows = 0;
+        for (int shard = 0; shard < shardRouter.getPhysicalShardCount(); shard++) {
+            long rowsSoFar = rows;
+            try {
+                rows = shardRouter.onShard(shard,
+                        () -> readOnlyTransaction.execute(status -> exportShard(criteria, writer, rowsSoFar)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+            gzip.flush();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ExportResult result = new ExportResult(rows, counting.getBytesWritten(), elapsedMillis);
+        log.info("Exported {} appointments ({} bytes, {}) in {} ms, {} rows/sec", result.rows(), result.bytes(),
+                format.getExtension(), result.elapsedMillis(), String.format("%.0f", result.rowsPerSecond()));
+        hospitalUtils.recordUsage("Export appointments");
+        return result;
+    }
+
+    // Streams one shard's rows into the writer; must run inside a transaction.
+    private long exportShard(AppointmentExportFilter criteria, ChannelLineWriter writer, long rowsSoFar) {
+        long rows = rowsSoFar;
+        try (Stream<AppointmentExportRow> stream = appointmentRepo.streamForExport(
+                blankToNull(criteria.getFromDate()), blankToNull(criteria.getToDate()),
+                blankToNull(criteria.getReason()))) {
+            StringBuilder line = new StringBuilder(128);
+            Iterator<AppointmentExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                toCsvLine(iterator.next(), line);
+                writer.writeLine(line);
+                rows++;
+                if (rows % PROGRESS_INTERVAL == 0) {
+                    log.info("Exported {} appointments so far", rows);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    static void toCsvLine(AppointmentExportRow row, StringBuilder line) {
+        line.setLength(0);
+        if (row.getId() != null) {
+            line.append(row.getId());
+        }
+        line.append(',');
+        appendCsvField(line, row.getReason());
+        line.append(',');
+        appendCsvField(line, row.getDate());
+        line.append(',');
+        appendCsvField(line, row.getPatientName());
+        line.append(',');
+        appendCsvField(line, row.getPatientSSN());
+    }
+
+    // RFC 4180 quoting: fields containing a separator, quote or line break are
+    // wrapped in quotes, with embedded quotes doubled.
+    static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * Encodes lines as UTF-8 into one reusable direct buffer and drains it to the
+     * channel whenever it fills up.
+     */
+    private static final class ChannelLineWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        ChannelLineWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeLine(CharSequence line) throws IOException {
+            encode(CharBuffer.wrap(line));
+            encode(CharBuffer.wrap("\n"));
+        }
+
+        private void encode(CharBuffer chars) throws IOException {
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Pass-through channel that counts bytes and never closes its delegate.
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        private final WritableByteChannel delegate;
+        private long bytesWritten;
+
+        CountingChannel(WritableByteChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int written = delegate.write(src);
+            bytesWritten += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the underlying channel.
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+}
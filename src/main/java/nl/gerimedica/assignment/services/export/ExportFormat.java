@@ -0,0 +1,47 @@
+package nl.gerimedica.assignment.services.export;
+
+import java.util.Locale;
+
+/**
+ * Output formats supported by the appointment export.
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    CSV_GZIP("application/gzip", "csv.gz");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolves a format from a request parameter such as "csv" or "csv.gz".
+     * 
+     * @param value Format name or file extension, case-insensitive
+     * @return The matching format, CSV when the value is null or blank
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return CSV;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (ExportFormat format : values()) {
+            if (format.extension.equals(normalized) || format.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
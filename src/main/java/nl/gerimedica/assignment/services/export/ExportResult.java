@@ -0,0 +1,15 @@
+package nl.gerimedica.assignment.services.export;
+
+/**
+ * Summary of a finished export run.
+ * 
+ * @param rows          Number of appointment rows written
+ * @param bytes         Number of bytes handed to the output channel
+ * @param elapsedMillis Wall-clock duration of the export
+ */
+public record ExportResult(long rows, long bytes, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,82 @@
+package nl.gerimedica.assignment.services.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the
+ * loader, callers arriving while it is in flight wait for and share its result
+ * (or exception). Nothing is cached once the call finishes.
+ * 
+ * @param <K> Key type
+ * @param <V> Result type, may be null
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the loader for the key, or joins the call already in flight for it.
+     * 
+     * @param key    Key identifying identical calls
+     * @param loader Call to run when none is in flight
+     * @return The loader's result
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            V result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Only remove our own call; forget() may already have replaced it.
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Detaches the in-flight call for the key, if any, so callers arriving from
+     * now on start a fresh call. Used after a write so nobody who starts after
+     * the write observes a result read before it.
+     * 
+     * @param key Key to forget
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * @return Number of calls that were served by another caller's in-flight call
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nl.gerimedica.assignment.sharding;
+
+/**
+ * Holds the shard the current thread is working on. Read by
+ * {@link ShardRoutingDataSource} whenever a connection is acquired; set through
+ * {@link ShardRouter#onShard}.
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package nl.gerimedica.assignment.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the SSN parameter that decides which shard a service method runs on.
+ * The whole call, including any transaction it opens, is routed to the shard
+ * owning that SSN (see {@link ShardRoutingAspect}).
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
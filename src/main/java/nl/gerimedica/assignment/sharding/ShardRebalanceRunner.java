@@ -0,0 +1,38 @@
+package nl.gerimedica.assignment.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line rebalancing after changing the shard count, e.g.
+ * 
+ * <pre>
+ * java -jar assignment.jar --spring.main.web-application-type=none \
+ *     --sharding.urls=jdbc:h2:file:./shard0,jdbc:h2:file:./shard1,jdbc:h2:file:./shard2 \
+ *     --sharding.shard-count=3 --spring.jpa.hibernate.ddl-auto=none --sharding.rebalance=true
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "sharding.rebalance", havingValue = "true")
+@Slf4j
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    private final ShardRebalancer rebalancer;
+
+    @Autowired
+    public ShardRebalanceRunner(ShardRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long moved = rebalancer.rebalance();
+        log.info("Rebalanced {} patients in {} ms", moved, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,118 @@
+package nl.gerimedica.assignment.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.repositories.PatientRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves patients, with their appointments, to the shard that owns their SSN
+ * under the current shard count. Used after changing
+ * {@code sharding.shard-count}: every configured datasource is scanned, so both
+ * growing and shrinking work as long as the old datasources are still listed
+ * in {@code sharding.urls} while rebalancing.
+ * <p>
+ * A patient is copied to its new shard before it is deleted from the old one.
+ * There is no distributed transaction; if a run is interrupted between the two
+ * steps the copy is simply redone by the next run, which replaces the
+ * appointments on the target shard with the source's.
+ */
+@Component
+@Slf4j
+public class ShardRebalancer {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final ShardRouter shardRouter;
+    private final PatientRepository patientRepo;
+    private final AppointmentRepository appointmentRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ShardRebalancer(ShardRouter shardRouter, PatientRepository patientRepo,
+            AppointmentRepository appointmentRepo, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.patientRepo = patientRepo;
+        this.appointmentRepo = appointmentRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Scans every shard and moves misplaced patients to their owning shard.
+     * 
+     * @return Number of patients moved
+     */
+    public long rebalance() {
+        long moved = 0;
+        for (int shard = 0; shard < shardRouter.getPhysicalShardCount(); shard++) {
+            moved += rebalanceShard(shard);
+        }
+        log.info("Rebalancing finished, moved {} patients", moved);
+        return moved;
+    }
+
+    private long rebalanceShard(int source) {
+        long moved = 0;
+        long lastId = 0;
+        while (true) {
+            long cursor = lastId;
+            Slice<Patient> page = shardRouter.onShard(source,
+                    () -> patientRepo.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, PAGE_SIZE)));
+            for (Patient patient : page.getContent()) {
+                int target = shardRouter.shardFor(patient.getSsn());
+                if (target != source) {
+                    move(patient.getSsn(), source, target);
+                    moved++;
+                }
+                lastId = patient.getId();
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} patients off shard {}", moved, source);
+        }
+        return moved;
+    }
+
+    private void move(String ssn, int source, int target) {
+        Patient original = shardRouter.onShard(source, () -> patientRepo.findBySsn(ssn).orElse(null));
+        if (original == null) {
+            return;
+        }
+        List<Appointment> appointments = shardRouter.onShard(source,
+                () -> appointmentRepo.findByPatientSsnOrderByDateDesc(ssn));
+
+        shardRouter.onShard(target, () -> transactionTemplate.execute(status -> {
+            Patient copy = patientRepo.findBySsn(ssn).orElse(null);
+            if (copy == null) {
+                copy = patientRepo.save(new Patient(original.getName(), ssn));
+            } else {
+                // Left over from an interrupted run; the source is still authoritative.
+                appointmentRepo.deleteAll(appointmentRepo.findByPatientSsnOrderByDateDesc(ssn));
+            }
+            Patient owner = copy;
+            appointmentRepo.saveAll(appointments.stream()
+                    .map(a -> new Appointment(a.getReason(), a.getDate(), owner))
+                    .toList());
+            return null;
+        }));
+
+        shardRouter.onShard(source, () -> transactionTemplate.execute(status -> {
+            appointmentRepo.deleteAll(appointmentRepo.findByPatientSsnOrderByDateDesc(ssn));
+            patientRepo.findBySsn(ssn).ifPresent(patientRepo::delete);
+            return null;
+        }));
+    }
+}
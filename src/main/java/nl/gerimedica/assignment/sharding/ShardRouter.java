@@ -0,0 +1,181 @@
+package nl.gerimedica.assignment.sharding;
+
+import nl.gerimedica.assignment.sql.SqlStatistics;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps SSNs to shards and runs work on a given shard, or on all shards in
+ * parallel. With a single shard every call simply runs inline, so callers do
+ * not need to know whether sharding is enabled.
+ */
+public class ShardRouter implements AutoCloseable {
+
+    private final int shardCount;
+    private final int physicalShardCount;
+    private final ExecutorService executor;
+
+    /**
+     * @param shardCount         Number of shards SSNs are hashed over
+     * @param physicalShardCount Number of configured datasources, at least
+     *                           shardCount; extra ones only hold data until
+     *                           they are rebalanced away
+     */
+    public ShardRouter(int shardCount, int physicalShardCount) {
+        if (shardCount < 1 || physicalShardCount < shardCount) {
+            throw new IllegalArgumentException("Shard count must be between 1 and the number of datasources");
+        }
+        this.shardCount = shardCount;
+        this.physicalShardCount = physicalShardCount;
+        this.executor = physicalShardCount > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public static ShardRouter singleShard() {
+        return new ShardRouter(1, 1);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getPhysicalShardCount() {
+        return physicalShardCount;
+    }
+
+    public boolean isSharded() {
+        return physicalShardCount > 1;
+    }
+
+    /**
+     * @param ssn Social Security Number
+     * @return Index of the shard owning the SSN
+     */
+    public int shardFor(String ssn) {
+        if (shardCount == 1 || ssn == null) {
+            return 0;
+        }
+        // Murmur3 finalizer on top of String.hashCode so similar SSNs spread evenly.
+        int h = ssn.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, shardCount);
+    }
+
+    /**
+     * Runs the work with all connections routed to the given shard. Resources
+     * bound to the calling thread outside a transaction, such as the request's
+     * EntityManager under open-in-view, may already hold a connection to another
+     * shard; they are set aside while the work runs so it opens its own.
+     * 
+     * @param shard Shard index
+     * @param work  Work to run
+     * @return The work's result
+     * @throws IllegalStateException if called inside a transaction bound to
+     *                               another shard
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.current();
+        Map<Object, Object> suspended = isSharded() ? suspendThreadResources(previous, shard) : Map.of();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+            suspended.forEach(TransactionSynchronizationManager::bindResource);
+        }
+    }
+
+    private static Map<Object, Object> suspendThreadResources(Integer previous, int shard) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The transaction's connection is already taken; work joining it would
+            // silently run on the old shard.
+            if ((previous == null ? 0 : previous) != shard) {
+                throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+            }
+            return Map.of();
+        }
+        Map<Object, Object> resources = new HashMap<>(TransactionSynchronizationManager.getResourceMap());
+        resources.keySet().forEach(TransactionSynchronizationManager::unbindResource);
+        return resources;
+    }
+
+    /**
+     * Runs the work once per active shard, in parallel, and gathers the results
+     * in shard order.
+     * 
+     * @param work Work to run, given the shard index
+     * @return One result per shard
+     */
+    public <T> List<T> scatter(IntFunction<T> work) {
+        return scatter(shardCount, work);
+    }
+
+    /**
+     * Like {@link #scatter(IntFunction)} but over every configured datasource,
+     * including ones no SSN hashes to any more.
+     */
+    public <T> List<T> scatterPhysical(IntFunction<T> work) {
+        return scatter(physicalShardCount, work);
+    }
+
+    // Each shard runs on its own thread, so the JDBC statistics it records are
+    // measured there and added back to the caller's, keeping request and
+    // service-method counters complete.
+    private <T> List<T> scatter(int shards, IntFunction<T> work) {
+        if (shards == 1) {
+            return List.of(onShard(0, () -> work.apply(0)));
+        }
+        List<Future<Measured<T>>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> {
+                SqlStatistics.Snapshot start = SqlStatistics.snapshot();
+                T result = onShard(target, () -> work.apply(target));
+                return new Measured<>(result, SqlStatistics.snapshot().since(start));
+            }));
+        }
+        List<T> results = new ArrayList<>(shards);
+        for (Future<Measured<T>> future : futures) {
+            try {
+                Measured<T> measured = future.get();
+                SqlStatistics.add(measured.sql());
+                results.add(measured.result());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted during scatter-gather", e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Shard query failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private record Measured<T>(T result, SqlStatistics.Snapshot sql) {
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package nl.gerimedica.assignment.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Routes service methods with a {@link ShardKey} parameter to the owning shard.
+ * Ordered outside the transaction interceptor, because the connection is taken
+ * as soon as the transaction begins.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Around("execution(* nl.gerimedica.assignment.services..*(.., @nl.gerimedica.assignment.sharding.ShardKey (*), ..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return joinPoint.proceed();
+        }
+        String ssn = findShardKey(joinPoint);
+        Integer previous = ShardContext.current();
+        ShardContext.set(shardRouter.shardFor(ssn));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    private static String findShardKey(ProceedingJoinPoint joinPoint) {
+        Annotation[][] annotations = ((MethodSignature) joinPoint.getSignature()).getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return args[i] == null ? null : args[i].toString();
+                }
+            }
+        }
+        return null;
+    }
+}
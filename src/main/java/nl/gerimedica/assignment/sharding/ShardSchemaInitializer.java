@@ -0,0 +1,63 @@
+package nl.gerimedica.assignment.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Hibernate only manages the schema on the connection it gets at startup, which
+ * is shard 0. This creates the same schema on every other shard and gives each
+ * shard its own identity range, so appointment and patient ids stay unique
+ * once results from several shards are merged.
+ */
+@Slf4j
+public class ShardSchemaInitializer implements InitializingBean {
+
+    // Shard i hands out ids starting at i * ID_RANGE + 1.
+    static final long ID_RANGE = 1_000_000_000_000L;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardRouter shardRouter;
+    private final String ddlAuto;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, ShardRouter shardRouter,
+            String ddlAuto) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.shardRouter = shardRouter;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!ddlAuto.startsWith("create")) {
+            log.info("spring.jpa.hibernate.ddl-auto={}, leaving shard schemas to be managed externally", ddlAuto);
+            return;
+        }
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for (int shard = 0; shard < shardRouter.getPhysicalShardCount(); shard++) {
+            int target = shard;
+            shardRouter.onShard(target, () -> {
+                if (target > 0) {
+                    sessionFactory.getSchemaManager().dropMappedObjects(true);
+                    sessionFactory.getSchemaManager().exportMappedObjects(true);
+                }
+                restartIdentities(sessionFactory, target);
+                return null;
+            });
+            log.info("Initialized schema on shard {}", target);
+        }
+    }
+
+    private static void restartIdentities(SessionFactory sessionFactory, int shard) {
+        long start = shard * ID_RANGE + 1;
+        sessionFactory.inTransaction(session -> {
+            session.createNativeMutationQuery("ALTER TABLE patient ALTER COLUMN id RESTART WITH " + start)
+                    .executeUpdate();
+            session.createNativeMutationQuery("ALTER TABLE appointment ALTER COLUMN id RESTART WITH " + start)
+                    .executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package nl.gerimedica.assignment.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Hash-sharded storage. When {@code sharding.urls} lists more than one JDBC
+ * URL, the application DataSource becomes a {@link ShardRoutingDataSource} over
+ * one connection pool per URL, and SSNs are hashed over the first
+ * {@code sharding.shard-count} of them (all of them by default). Each pool takes
+ * the {@code spring.datasource.hikari.*} settings, so e.g. maximum-pool-size is
+ * per shard. Without it the regular spring.datasource is used and the router has
+ * a single shard.
+ */
+@Configuration
+@Slf4j
+public class ShardingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    ShardRouter shardRouter(@Value("${sharding.urls:}") List<String> urls,
+            @Value("${sharding.shard-count:0}") int shardCount) {
+        int physical = Math.max(1, urls.size());
+        int active = shardCount > 0 ? shardCount : physical;
+        if (physical > 1) {
+            log.info("Sharding enabled: SSNs hashed over {} of {} datasources", active, physical);
+        }
+        return new ShardRouter(active, physical);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "sharding.urls")
+    DataSource shardRoutingDataSource(@Value("${sharding.urls}") List<String> urls,
+            @Value("${spring.datasource.username:sa}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${spring.datasource.driverClassName:org.h2.Driver}") String driverClassName,
+            Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .driverClassName(driverClassName)
+                    .build();
+            // Same binding Spring Boot applies to the single-datasource pool.
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + i);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sharding.urls")
+    ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+            ShardRouter shardRouter, @Value("${spring.jpa.hibernate.ddl-auto:create-drop}") String ddlAuto) {
+        return new ShardSchemaInitializer(entityManagerFactory, shardRouter, ddlAuto);
+    }
+}
@@ -0,0 +1,74 @@
+package nl.gerimedica.assignment.sql;
+
+/**
+ * Per-thread JDBC counters fed by {@link SqlStatisticsDataSource}. Counters only
+ * ever grow; callers take a {@link #snapshot()} before and after a unit of work
+ * and subtract, which keeps nested measurements (request, service method, test)
+ * independent of each other.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = ThreadLocal.withInitial(SqlStatistics::new);
+
+    private long statements;
+    private long rows;
+    private long nanos;
+
+    private SqlStatistics() {
+    }
+
+    static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void recordFetch(boolean rowFetched, long elapsedNanos) {
+        if (rowFetched) {
+            rows++;
+        }
+        nanos += elapsedNanos;
+    }
+
+    /**
+     * @return The current thread's counters so far
+     */
+    public static Snapshot snapshot() {
+        SqlStatistics stats = current();
+        return new Snapshot(stats.statements, stats.rows, stats.nanos);
+    }
+
+    /**
+     * Adds work measured on another thread to the current thread's counters, so
+     * queries fanned out to worker threads are attributed to the caller.
+     * 
+     * @param used Difference between two snapshots taken on the worker thread
+     */
+    public static void add(Snapshot used) {
+        SqlStatistics stats = current();
+        stats.statements += used.statements;
+        stats.rows += used.rows;
+        stats.nanos += used.nanos;
+    }
+
+    /**
+     * Point-in-time copy of the counters, or the difference between two of them.
+     * 
+     * @param statements Statements executed (a JDBC batch counts once)
+     * @param rows       Rows fetched from result sets
+     * @param nanos      Time spent inside JDBC execute and fetch calls
+     */
+    public record Snapshot(long statements, long rows, long nanos) {
+
+        public Snapshot since(Snapshot earlier) {
+            return new Snapshot(statements - earlier.statements, rows - earlier.rows, nanos - earlier.nanos);
+        }
+
+        public long millis() {
+            return nanos / 1_000_000;
+        }
+    }
+}
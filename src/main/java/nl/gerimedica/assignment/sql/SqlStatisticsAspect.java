@@ -0,0 +1,50 @@
+package nl.gerimedica.assignment.sql;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the SQL work done by each public HospitalService method, and warns when
+ * a single call exceeds the configured statement budget, which is how hidden
+ * N+1 query patterns show up. Ordered outside the transaction interceptor so
+ * statements flushed at commit are included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "sql.statistics.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlStatisticsAspect {
+
+    private final long statementBudget;
+
+    public SqlStatisticsAspect(@Value("${sql.statistics.method-statement-budget:20}") long statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    @Around("execution(public * nl.gerimedica.assignment.services.HospitalService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        SqlStatistics.Snapshot start = SqlStatistics.snapshot();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlStatistics.Snapshot used = SqlStatistics.snapshot().since(start);
+            String method = joinPoint.getSignature().getName();
+            if (used.statements() > statementBudget) {
+                log.warn("HospitalService.{} executed {} statements (budget {}), fetched {} rows in {} ms", method,
+                        used.statements(), statementBudget, used.rows(), used.millis());
+            } else {
+                log.debug("HospitalService.{} executed {} statements, fetched {} rows in {} ms", method,
+                        used.statements(), used.rows(), used.millis());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package nl.gerimedica.assignment.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource wrapper that counts executed statements, fetched rows and time
+ * spent in JDBC for the calling thread (see {@link SqlStatistics}). Connections,
+ * statements and result sets are wrapped in lightweight JDK proxies; everything
+ * else is passed through untouched. Closing it closes the wrapped pool.
+ */
+public class SqlStatisticsDataSource extends DelegatingDataSource implements Closeable {
+
+    public SqlStatisticsDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlStatisticsDataSource.class.getClassLoader(), new Class<?>[] { type },
+                handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatisticsDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement, new StatementHandler(statement));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement, new StatementHandler(statement));
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+
+        StatementHandler(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute") && !name.equals("getResultSet")) {
+                return SqlStatisticsDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            Object result = SqlStatisticsDataSource.invoke(target, method, args);
+            if (name.startsWith("execute")) {
+                SqlStatistics.current().recordStatement(System.nanoTime() - start);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrap(ResultSet.class, resultSet, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+
+        ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("next")) {
+                return SqlStatisticsDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            boolean hasRow = target.next();
+            SqlStatistics.current().recordFetch(hasRow, System.nanoTime() - start);
+            return hasRow;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package nl.gerimedica.assignment.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Reports the SQL work done for each HTTP request as X-Sql-Statements,
+ * X-Sql-Rows and X-Sql-Time-Ms response headers. The headers are added just
+ * before the body starts being written, which is after the controller has run
+ * all of its queries. Work done on async threads (streamed responses) is not
+ * included.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.statistics.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatisticsResponse wrapped = new StatisticsResponse(response, SqlStatistics.snapshot());
+        chain.doFilter(request, wrapped);
+        SqlStatistics.Snapshot used = wrapped.writeHeaders();
+        log.debug("{} {} executed {} statements, fetched {} rows in {} ms", request.getMethod(),
+                request.getRequestURI(), used.statements(), used.rows(), used.millis());
+    }
+
+    private static final class StatisticsResponse extends HttpServletResponseWrapper {
+        private final SqlStatistics.Snapshot start;
+        private SqlStatistics.Snapshot reported;
+
+        StatisticsResponse(HttpServletResponse response, SqlStatistics.Snapshot start) {
+            super(response);
+            this.start = start;
+        }
+
+        SqlStatistics.Snapshot writeHeaders() {
+            if (reported == null) {
+                reported = SqlStatistics.snapshot().since(start);
+                if (!isCommitted()) {
+                    setHeader(STATEMENTS_HEADER, String.valueOf(reported.statements()));
+                    setHeader(ROWS_HEADER, String.valueOf(reported.rows()));
+                    setHeader(TIME_HEADER, String.valueOf(reported.millis()));
+                }
+            }
+            return reported;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+    }
+}
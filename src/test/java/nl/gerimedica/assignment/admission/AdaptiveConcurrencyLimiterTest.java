@@ -0,0 +1,85 @@
+package nl.gerimedica.assignment.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void tryAcquire_BeyondLimit_ShouldReject() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        assertEquals(2, limiter.getAcceptedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertTrue(limiter.isSaturated());
+    }
+
+    @Test
+    void onSample_WithStableLatencyUnderLoad_ShouldIncreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.onSample(10 * MILLI, false);
+            limiter.onSample(10 * MILLI, false);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void onSample_WithLatencySpike_ShouldDecreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 2.0, 0.5);
+        sample(limiter, 20, 10 * MILLI);
+
+        sample(limiter, 5, 50 * MILLI);
+
+        assertTrue(limiter.getLimit() < 8);
+    }
+
+    @Test
+    void onSample_WithOneFastOutlier_ShouldNotCollapseLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 2.0, 0.9);
+        sample(limiter, 1, MILLI / 10);
+        sample(limiter, 20, 10 * MILLI);
+
+        sample(limiter, 1, MILLI / 10);
+        sample(limiter, 500, 10 * MILLI);
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void onSample_WithDrops_ShouldNotGoBelowMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 10, 2.0, 0.5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(MILLI, true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void constructor_WithInconsistentBounds_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(20, 1, 10, 2.0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 1, 10, 2.0, 1.5));
+    }
+
+    private static void sample(AdaptiveConcurrencyLimiter limiter, int count, long rttNanos) {
+        for (int i = 0; i < count; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package nl.gerimedica.assignment.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final AdmissionControl admissionControl = new AdmissionControl(true, 1, 1, 1, 2.0, 0.9);
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(admissionControl, 3);
+
+    @Test
+    void doFilter_WhenLimitReached_ShouldReturnServiceUnavailableWithRetryAfter() throws Exception {
+        assertEquals(AdmissionControl.Decision.ADMITTED, admissionControl.tryAdmit("GET /api/appointments/latest"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/appointments/latest"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_BulkWhileInteractiveSaturated_ShouldShedWithTooManyRequests() throws Exception {
+        admissionControl.tryAdmit("GET /api/appointments-by-reason");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/bulk-appointments"), response, new MockFilterChain());
+
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, admissionControl.snapshot().stream()
+                .filter(e -> e.getEndpoint().equals("POST /api/bulk-appointments"))
+                .findFirst().orElseThrow().getShed());
+    }
+
+    @Test
+    void doFilter_WhenAdmitted_ShouldPassThroughAndReleasePermit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/appointments/latest"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertTrue(admissionControl.snapshot().stream().allMatch(e -> e.getInFlight() == 0));
+    }
+
+    @Test
+    void doFilter_UnlimitedEndpoint_ShouldAlwaysPassThrough() throws Exception {
+        admissionControl.tryAdmit("GET /api/appointments/latest");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/admission/limits"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -1,20 +1,32 @@
 package nl.gerimedica.assignment.controllers;
 
+import nl.gerimedica.assignment.dto.AppointmentField;
+import nl.gerimedica.assignment.dto.BookingCalendarDTO;
 import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
 import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.idempotency.IdempotencyStore;
 import nl.gerimedica.assignment.services.HospitalService;
+import nl.gerimedica.assignment.services.export.AppointmentExportService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +35,12 @@ class AppointmentControllerTest {
     @Mock
     private HospitalService hospitalService;
 
+    @Mock
+    private AppointmentExportService exportService;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, 60, 5);
+
     @InjectMocks
     private AppointmentController appointmentController;
 
@@ -31,7 +49,7 @@ class AppointmentControllerTest {
         List<Appointment> appointments = Arrays.asList(new Appointment(), new Appointment());
         when(hospitalService.getAppointmentsByReason("Checkup")).thenReturn(appointments);
         
-        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("Checkup");
+        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("Checkup", null);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -39,12 +57,44 @@ class AppointmentControllerTest {
     @Test
     void getAppointmentsByReason_WithEmptyKeyword_ShouldReturnBadRequest() {
         // Act
-        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("");
+        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("", null);
         
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void getAppointmentsByReason_WithFields_ShouldReturnOnlyRequestedFields() {
+        List<AppointmentField> fields = List.of(AppointmentField.ID, AppointmentField.DATE);
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "date", "2025-01-15"));
+        when(hospitalService.getAppointmentFieldsByReason("Checkup", fields)).thenReturn(rows);
+
+        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("Checkup", "id, date");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(rows, response.getBody());
+        verify(hospitalService, never()).getAppointmentsByReason("Checkup");
+    }
+
+    @Test
+    void getAppointmentsByReason_WithUnknownField_ShouldReturnBadRequest() {
+        ResponseEntity<?> response = appointmentController.getAppointmentsByReason("Checkup", "id,patient");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getLatestAppointment_WithFields_ShouldReturnOnlyRequestedFields() {
+        Map<String, Object> latest = Map.of("date", "2025-02-15");
+        when(hospitalService.findLatestAppointmentFieldsBySSN("123-45-6789", List.of(AppointmentField.DATE)))
+            .thenReturn(latest);
+
+        ResponseEntity<?> response = appointmentController.getLatestAppointment("123-45-6789", "date");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(latest, response.getBody());
+    }
+
     @Test
     void createBulkAppointments_ShouldCreateAppointments() {
         // Arrange
@@ -60,9 +110,68 @@ class AppointmentControllerTest {
             
         // Act
         ResponseEntity<?> response = appointmentController
-            .createBulkAppointments("patient1", "123-45-6789", payload);
+            .createBulkAppointments("patient1", "123-45-6789", payload, null);
             
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportAppointments_WithUnknownFormat_ShouldReturnBadRequest() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> appointmentController.exportAppointments("xlsx", null, null, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void exportAppointments_WithNonIsoOrReversedDates_ShouldReturnBadRequest() {
+        ResponseStatusException unpadded = assertThrows(ResponseStatusException.class,
+            () -> appointmentController.exportAppointments(null, "2025-6-1", null, null));
+        ResponseStatusException reversed = assertThrows(ResponseStatusException.class,
+            () -> appointmentController.exportAppointments(null, "2025-06-02", "2025-06-01", null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, unpadded.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+    }
+
+    @Test
+    void createBulkAppointments_RetryWithSameIdempotencyKey_ShouldReplayWithoutCallingService() {
+        BulkAppointmentsDTO payload = new BulkAppointmentsDTO();
+        payload.setReasons(Arrays.asList("Checkup"));
+        payload.setDates(Arrays.asList("2025-01-15"));
+        when(hospitalService.bulkCreateAppointments("patient1", "123-45-6789", payload))
+            .thenReturn(Arrays.asList(new Appointment()));
+
+        ResponseEntity<?> first = appointmentController
+            .createBulkAppointments("patient1", "123-45-6789", payload, "key-1");
+        ResponseEntity<?> retry = appointmentController
+            .createBulkAppointments("patient1", "123-45-6789", payload, "key-1");
+
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verify(hospitalService, times(1)).bulkCreateAppointments("patient1", "123-45-6789", payload);
+    }
+
+    @Test
+    void getBookingCalendar_ShouldSplitBookedAndFreeDays() {
+        when(hospitalService.findBookedDays("123-45-6789", LocalDate.parse("2025-02-01"), LocalDate.parse("2025-02-03")))
+            .thenReturn(List.of(LocalDate.parse("2025-02-02")));
+
+        ResponseEntity<?> response = appointmentController.getBookingCalendar("123-45-6789", "2025-02-01", "2025-02-03");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        BookingCalendarDTO body = (BookingCalendarDTO) response.getBody();
+        assertEquals(List.of("2025-02-02"), body.getBookedDays());
+        assertEquals(List.of("2025-02-01", "2025-02-03"), body.getFreeDays());
+    }
+
+    @Test
+    void getBookingCalendar_WithTooLongRange_ShouldReturnBadRequest() {
+        ResponseEntity<?> response = appointmentController.getBookingCalendar("123-45-6789", "2025-01-01", "2027-01-01");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
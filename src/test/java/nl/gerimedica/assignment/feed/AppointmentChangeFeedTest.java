@@ -0,0 +1,98 @@
+package nl.gerimedica.assignment.feed;
+
+import nl.gerimedica.assignment.dto.AppointmentChangeEventDTO;
+import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.entities.Patient;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentChangeFeedTest {
+
+    private final Patient patient = new Patient("Test Patient", "123-45-6789");
+
+    private Appointment appointment(long id) {
+        Appointment appointment = new Appointment("Checkup", "2025-01-15", patient);
+        appointment.setId(id);
+        return appointment;
+    }
+
+    @Test
+    void readAfter_ShouldReturnEventsWithIncreasingSequences() throws Exception {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(10);
+        feed.publish(AppointmentChangeFeed.CREATED, List.of(appointment(1), appointment(2)));
+        feed.publish(AppointmentChangeFeed.DELETED, List.of(appointment(1)));
+
+        AppointmentChangeFeed.Batch batch = feed.readAfter(0, 100, 0);
+
+        assertFalse(batch.gap());
+        assertEquals(List.of(1L, 2L, 3L), batch.events().stream().map(AppointmentChangeEventDTO::getSequence).toList());
+        assertEquals(AppointmentChangeFeed.DELETED, batch.events().get(2).getType());
+        assertEquals("123-45-6789", batch.events().get(0).getPatientSSN());
+        assertEquals(3, feed.getLatestSequence());
+    }
+
+    @Test
+    void readAfter_ShouldResumeFromLastEventId() throws Exception {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(10);
+        feed.publish(AppointmentChangeFeed.CREATED, List.of(appointment(1), appointment(2), appointment(3)));
+
+        AppointmentChangeFeed.Batch batch = feed.readAfter(2, 100, 0);
+
+        assertEquals(1, batch.events().size());
+        assertEquals(3L, batch.events().get(0).getAppointmentId());
+    }
+
+    @Test
+    void readAfter_WhenConsumerFellBehindCapacity_ShouldReportGap() throws Exception {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(2);
+        feed.publish(AppointmentChangeFeed.CREATED, List.of(appointment(1), appointment(2), appointment(3)));
+
+        assertTrue(feed.readAfter(0, 100, 0).gap());
+        assertEquals(2, feed.readAfter(1, 100, 0).events().size());
+    }
+
+    @Test
+    void readAfter_ShouldWaitForNextPublish() throws Exception {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(10);
+        CompletableFuture<AppointmentChangeFeed.Batch> pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.readAfter(0, 100, 5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        feed.publish(AppointmentChangeFeed.CREATED, List.of(appointment(7)));
+
+        assertEquals(7L, pending.get(5, TimeUnit.SECONDS).events().get(0).getAppointmentId());
+    }
+
+    @Test
+    void readAfter_WithCursorAheadOfFeed_ShouldReportGapWithoutWaiting() throws Exception {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(10);
+        feed.publish(AppointmentChangeFeed.CREATED, List.of(appointment(1)));
+
+        // A consumer reconnecting with Last-Event-ID 5000 from before a restart.
+        AppointmentChangeFeed.Batch batch = feed.readAfter(5000, 100, 5000);
+
+        assertTrue(batch.gap());
+        assertTrue(feed.readAfter(AppointmentChangeFeed.UNKNOWN_POSITION, 100, 5000).gap());
+    }
+
+    @Test
+    void sequenceOf_ShouldOnlyResumeIdsFromThisRun() {
+        AppointmentChangeFeed feed = new AppointmentChangeFeed(10);
+
+        assertEquals(42, feed.sequenceOf(feed.eventId(42)));
+        // Same sequence issued by an earlier run.
+        assertEquals(AppointmentChangeFeed.UNKNOWN_POSITION, feed.sequenceOf("1-42"));
+        assertEquals(AppointmentChangeFeed.UNKNOWN_POSITION, feed.sequenceOf("5000"));
+        assertThrows(IllegalArgumentException.class, () -> feed.sequenceOf("abc"));
+    }
+}
@@ -0,0 +1,154 @@
+package nl.gerimedica.assignment.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private ResponseEntity<?> created() {
+        return new ResponseEntity<>("created-" + calls.incrementAndGet(), HttpStatus.CREATED);
+    }
+
+    @Test
+    void execute_WithSameKey_ShouldReplayStoredResponse() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5);
+
+        ResponseEntity<?> first = store.execute("key", "1", this::created);
+        ResponseEntity<?> retry = store.execute("key", "1", this::created);
+
+        assertEquals("created-1", first.getBody());
+        assertEquals("created-1", retry.getBody());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WithDifferentFingerprint_ShouldReturnUnprocessableEntity() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5);
+        store.execute("key", "1", this::created);
+
+        ResponseEntity<?> response = store.execute("key", "2", this::created);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_RetryWhileOriginalRunning_ShouldWaitForOriginalResult() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> original = executor.submit(() -> store.execute("key", "1", () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return created();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<?>> retry = executor.submit(() -> store.execute("key", "1", this::created));
+            release.countDown();
+
+            assertEquals("created-1", original.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals("created-1", retry.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WithServerError_ShouldNotStoreResponse() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5);
+        store.execute("key", "1", () -> new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        ResponseEntity<?> retry = store.execute("key", "1", this::created);
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldEvictOldestKeys() {
+        IdempotencyStore store = new IdempotencyStore(2, 60, 5);
+        store.execute("a", "1", this::created);
+        store.execute("b", "1", this::created);
+        store.execute("c", "1", this::created);
+
+        assertEquals(2, store.size());
+        assertEquals("created-4", store.execute("a", "1", this::created).getBody());
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldRunActionAgain() {
+        IdempotencyStore store = new IdempotencyStore(10, 0, 5);
+        store.execute("key", "1", this::created);
+
+        ResponseEntity<?> later = store.execute("key", "1", this::created);
+
+        assertEquals("created-2", later.getBody());
+    }
+
+    @Test
+    void execute_WithExpiredEntryBehindNewerOne_ShouldNotReplay() {
+        AtomicLong clock = new AtomicLong();
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5, clock::get);
+        // "slow" is stored first but completes after "fast", so the oldest-first purge
+        // stops at it while "fast" is already expired.
+        store.execute("slow", "1", () -> {
+            clock.set(TimeUnit.SECONDS.toNanos(1));
+            store.execute("fast", "1", this::created);
+            clock.set(TimeUnit.SECONDS.toNanos(10));
+            return created();
+        });
+        clock.set(TimeUnit.SECONDS.toNanos(65));
+
+        ResponseEntity<?> later = store.execute("fast", "1", this::created);
+
+        assertEquals("created-3", later.getBody());
+        assertNull(later.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldNotEvictRunningRequests() {
+        IdempotencyStore store = new IdempotencyStore(1, 60, 5);
+        store.execute("running", "1", () -> {
+            store.execute("other", "1", this::created);
+            return created();
+        });
+
+        ResponseEntity<?> retry = store.execute("running", "1", this::created);
+
+        assertEquals("created-2", retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void fingerprint_ShouldDistinguishListBoundaries() {
+        String joined = IdempotencyStore.fingerprint("name", "ssn", List.of("a, b"), List.of("2025-01-01"));
+        String split = IdempotencyStore.fingerprint("name", "ssn", List.of("a", "b"), List.of("2025-01-01"));
+
+        assertNotEquals(joined, split);
+        assertEquals(64, joined.length());
+        assertEquals(split, IdempotencyStore.fingerprint("name", "ssn", List.of("a", "b"), List.of("2025-01-01")));
+    }
+}
@@ -14,8 +14,10 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 class AppointmentIntegrationTest {
@@ -51,6 +53,7 @@ class AppointmentIntegrationTest {
             retrieveUrl, Object.class);
         
         assertEquals(HttpStatus.OK, retrieveResponse.getStatusCode());
+        assertEquals("1", retrieveResponse.getHeaders().getFirst("X-Sql-Statements"));
         
         //Verify the latest appointment
         String latestUrl = "http://localhost:" + port + "/api/appointments/latest?ssn=999-88-7777";
@@ -60,5 +63,33 @@ class AppointmentIntegrationTest {
         
         assertEquals(HttpStatus.OK, latestResponse.getStatusCode());
         assertEquals("Integration Test Appointment", latestResponse.getBody().get("reason"));
+
+        //Retrieve only the id and date of the latest appointment
+        ResponseEntity<Map> sparseResponse = restTemplate.getForEntity(
+            latestUrl + "&fields=id,date", Map.class);
+
+        assertEquals(HttpStatus.OK, sparseResponse.getStatusCode());
+        assertEquals(Set.of("id", "date"), sparseResponse.getBody().keySet());
+    }
+
+    @Test
+    void exportAppointmentsAsCsv() {
+        BulkAppointmentsDTO payload = new BulkAppointmentsDTO();
+        payload.setReasons(Arrays.asList("Export Test Appointment"));
+        payload.setDates(Arrays.asList("2025-11-30"));
+
+        String createUrl = "http://localhost:" + port + "/api/bulk-appointments?patientName=Export Patient&ssn=555-44-3333";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        restTemplate.postForEntity(createUrl, new HttpEntity<>(payload, headers), Object.class);
+
+        String exportUrl = "http://localhost:" + port + "/api/appointments/export?reason=Export Test Appointment";
+
+        ResponseEntity<String> exportResponse = restTemplate.getForEntity(exportUrl, String.class);
+
+        assertEquals(HttpStatus.OK, exportResponse.getStatusCode());
+        assertTrue(exportResponse.getBody().startsWith("id,reason,date,patientName,patientSSN\n"));
+        assertTrue(exportResponse.getBody().contains(",Export Test Appointment,2025-11-30,Export Patient,555-44-3333\n"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package nl.gerimedica.assignment.integration;
+
+import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.feed.AppointmentChangeFeed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "changes.heartbeat-seconds=1")
+class ChangeFeedIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AppointmentChangeFeed changeFeed;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<Stream<String>> connect(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/appointments/changes"))
+            .timeout(Duration.ofSeconds(10));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    // Reads lines until one starts with the prefix, failing if it does not arrive in time.
+    private static String awaitLine(Iterator<String> lines, String prefix) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith(prefix)) {
+                    return line;
+                }
+            }
+            throw new AssertionError("Stream ended before a line starting with " + prefix);
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void streamChanges_WithMalformedLastEventId_ShouldReturnBadRequest() throws Exception {
+        HttpResponse<Stream<String>> response = connect("abc");
+
+        assertEquals(400, response.statusCode());
+        response.body().close();
+    }
+
+    @Test
+    void streamChanges_WithIdFromAnotherRun_ShouldSendResetAndComplete() throws Exception {
+        HttpResponse<Stream<String>> response = connect("1-5000");
+
+        assertEquals(200, response.statusCode());
+        List<String> lines = CompletableFuture.supplyAsync(() -> response.body().toList()).get(5, TimeUnit.SECONDS);
+        assertTrue(lines.contains("event:reset"));
+    }
+
+    @Test
+    void streamChanges_ShouldSendHeartbeatsAndPublishedEvents() throws Exception {
+        HttpResponse<Stream<String>> response = connect(null);
+        try (Stream<String> body = response.body()) {
+            Iterator<String> lines = body.iterator();
+
+            assertEquals(":heartbeat", awaitLine(lines, ":"));
+
+            Appointment appointment = new Appointment("Feed Test", "2025-08-01", new Patient("Feed", "306-00-1"));
+            appointment.setId(42L);
+            changeFeed.publish(AppointmentChangeFeed.CREATED, List.of(appointment));
+
+            String id = awaitLine(lines, "id:");
+            assertEquals(changeFeed.sequenceOf(id.substring(3)), changeFeed.getLatestSequence());
+            assertEquals("event:created", awaitLine(lines, "event:"));
+            assertTrue(awaitLine(lines, "data:").contains("\"appointmentId\":42"));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package nl.gerimedica.assignment.integration;
+
+import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.repositories.PatientRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Response size and JDBC time of the reason search with all fields versus
+ * fields=id,date. Slow, so only runs with FIELDS_BENCHMARK=true, e.g.
+ * {@code FIELDS_BENCHMARK=true gradle test --tests '*SparseFieldsBenchmark*'}.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "logging.level.root=WARN")
+@EnabledIfEnvironmentVariable(named = "FIELDS_BENCHMARK", matches = "true")
+class SparseFieldsBenchmarkTest {
+
+    private static final int PATIENTS = 2000;
+    private static final int APPOINTMENTS_PER_PATIENT = 10;
+    private static final int ITERATIONS = 30;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void sparseFieldsShrinkQueryTimeAndPayload() {
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = patientRepository.save(new Patient("Benchmark Patient " + i, "bench-" + i));
+            List<Appointment> appointments = new ArrayList<>();
+            for (int j = 0; j < APPOINTMENTS_PER_PATIENT; j++) {
+                appointments.add(new Appointment("Fields Bench", "2025-01-" + String.format("%02d", j + 1), patient));
+            }
+            appointmentRepository.saveAll(appointments);
+        }
+
+        String url = "http://localhost:" + port + "/api/appointments-by-reason?keyword=Fields Bench";
+        // Warm-up so JIT compilation does not count against either measurement.
+        measure(url);
+        measure(url + "&fields=id,date");
+        long[] full = measure(url);
+        long[] sparse = measure(url + "&fields=id,date");
+
+        System.out.printf("all fields:    %d bytes, %.2f ms JDBC, %.2f ms request%n", full[0],
+            full[1] / (double) ITERATIONS, full[2] / 1e6 / ITERATIONS);
+        System.out.printf("fields=id,date: %d bytes, %.2f ms JDBC, %.2f ms request%n", sparse[0],
+            sparse[1] / (double) ITERATIONS, sparse[2] / 1e6 / ITERATIONS);
+        assertTrue(sparse[0] < full[0]);
+    }
+
+    // Returns the body size, the summed X-Sql-Time-Ms and the summed wall time in nanoseconds.
+    private long[] measure(String url) {
+        long bytes = 0;
+        long sqlMillis = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            bytes = response.getBody().length();
+            sqlMillis += Long.parseLong(response.getHeaders().getFirst("X-Sql-Time-Ms"));
+        }
+        return new long[] { bytes, sqlMillis, System.nanoTime() - start };
+    }
+}
@@ -1,5 +1,7 @@
 package nl.gerimedica.assignment.repositories;
 
+import nl.gerimedica.assignment.dto.AppointmentExportRow;
+import nl.gerimedica.assignment.dto.AppointmentField;
 import nl.gerimedica.assignment.entities.Appointment;
 import nl.gerimedica.assignment.entities.Patient;
 import org.junit.jupiter.api.Test;
@@ -7,8 +9,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class AppointmentRepositoryTest {
@@ -73,4 +79,75 @@ class AppointmentRepositoryTest {
         assertEquals("Third Visit", result.get(1).getReason());  // 2025-02-10
         assertEquals("First Visit", result.get(2).getReason());  // 2025-01-15
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamForExport_ShouldApplyFiltersAndJoinPatient() {
+        Patient patient = new Patient("patient1", "123-45-6789");
+        patientRepository.save(patient);
+
+        appointmentRepository.save(new Appointment("Checkup", "2024-12-31", patient));
+        appointmentRepository.save(new Appointment("checkup", "2025-01-15", patient));
+        appointmentRepository.save(new Appointment("Follow-up", "2025-02-15", patient));
+
+        List<AppointmentExportRow> all;
+        try (Stream<AppointmentExportRow> stream = appointmentRepository.streamForExport(null, null, null)) {
+            all = stream.toList();
+        }
+        List<AppointmentExportRow> filtered;
+        try (Stream<AppointmentExportRow> stream = appointmentRepository.streamForExport("2025-01-01", null, "CHECKUP")) {
+            filtered = stream.toList();
+        }
+
+        assertEquals(3, all.size());
+        assertEquals(1, filtered.size());
+        assertEquals("2025-01-15", filtered.get(0).getDate());
+        assertEquals("123-45-6789", filtered.get(0).getPatientSSN());
+    }
+
+    @Test
+    void findFieldsByReasonIgnoreCase_ShouldSelectOnlyRequestedFields() {
+        Patient patient = new Patient("patient1", "123-45-6789");
+        patientRepository.save(patient);
+        appointmentRepository.save(new Appointment("Checkup", "2025-01-15", patient));
+        appointmentRepository.save(new Appointment("Follow-up", "2025-02-15", patient));
+
+        List<Map<String, Object>> withoutPatient = appointmentRepository.findFieldsByReasonIgnoreCase("CHECKUP",
+            List.of(AppointmentField.DATE, AppointmentField.ID));
+        List<Map<String, Object>> withPatient = appointmentRepository.findFieldsByReasonIgnoreCase("checkup",
+            List.of(AppointmentField.PATIENT_SSN));
+
+        assertEquals(1, withoutPatient.size());
+        assertEquals(List.of("date", "id"), List.copyOf(withoutPatient.get(0).keySet()));
+        assertEquals("2025-01-15", withoutPatient.get(0).get("date"));
+        assertEquals(Map.of("patientSSN", "123-45-6789"), withPatient.get(0));
+    }
+
+    @Test
+    void findLatestFieldsByPatientSsn_ShouldReturnLatestWithoutJoiningPatient() {
+        Patient patient = new Patient("patient1", "423-54-1345");
+        patientRepository.save(patient);
+        Patient otherPatient = new Patient("patient2", "987-65-4321");
+        patientRepository.save(otherPatient);
+        appointmentRepository.save(new Appointment("First Visit", "2025-01-15", patient));
+        appointmentRepository.save(new Appointment("Second Visit", "2025-03-20", patient));
+        appointmentRepository.save(new Appointment("Other Patient Visit", "2025-04-05", otherPatient));
+
+        Optional<Map<String, Object>> latest = appointmentRepository.findLatestFieldsByPatientSsn("423-54-1345",
+            List.of(AppointmentField.REASON));
+
+        assertEquals(Optional.of(Map.of("reason", "Second Visit")), latest);
+        assertTrue(appointmentRepository.findLatestFieldsByPatientSsn("000-00-0000", List.of(AppointmentField.ID))
+            .isEmpty());
+    }
+
+    @Test
+    void selectFrom_ShouldJoinPatientOnlyForPatientFields() {
+        String withoutPatient = AppointmentFieldRepositoryImpl.selectFrom(
+            List.of(AppointmentField.ID, AppointmentField.DATE));
+        String withPatient = AppointmentFieldRepositoryImpl.selectFrom(
+            List.of(AppointmentField.ID, AppointmentField.PATIENT_NAME));
+
+        assertEquals("SELECT a.id AS id, a.date AS date FROM Appointment a", withoutPatient);
+        assertTrue(withPatient.endsWith(" JOIN a.patient p"));
+    }
+}
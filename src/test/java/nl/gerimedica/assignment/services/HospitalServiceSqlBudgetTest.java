@@ -0,0 +1,81 @@
+package nl.gerimedica.assignment.services;
+
+import nl.gerimedica.assignment.dto.AppointmentField;
+import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
+import nl.gerimedica.assignment.entities.Appointment;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static nl.gerimedica.assignment.sql.SqlBudget.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HospitalServiceSqlBudgetTest {
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    private List<Appointment> createAppointments(String ssn, String reason) {
+        BulkAppointmentsDTO dto = new BulkAppointmentsDTO();
+        dto.setReasons(Arrays.asList(reason, reason, reason));
+        dto.setDates(Arrays.asList("2025-01-15", "2025-02-15", "2025-03-15"));
+        return hospitalService.bulkCreateAppointments("Budget Patient", ssn, dto);
+    }
+
+    @Test
+    void bulkCreateAppointments_ShouldStayWithinStatementBudget() {
+        // Patient lookup, patient insert and one insert per appointment.
+        List<Appointment> created = assertMaxStatements(5,
+            () -> createAppointments("100-00-0001", "Budget Create"));
+
+        assertEquals(3, created.size());
+    }
+
+    @Test
+    void findLatestAppointmentBySSN_ShouldUseSingleStatement() {
+        createAppointments("100-00-0002", "Budget Latest");
+
+        Appointment latest = assertMaxStatements(1, () -> hospitalService.findLatestAppointmentBySSN("100-00-0002"));
+
+        assertNotNull(latest.getPatient().getName());
+    }
+
+    @Test
+    void getAppointmentsByReason_ShouldNotLoadPatientsPerRow() {
+        createAppointments("100-00-0003", "Budget Reason");
+
+        List<Appointment> found = assertMaxStatements(1, () -> hospitalService.getAppointmentsByReason("Budget Reason"));
+
+        assertEquals(3, found.size());
+        found.forEach(appointment -> assertNotNull(appointment.getPatient().getSsn()));
+    }
+
+    @Test
+    void sparseFieldReads_ShouldUseSingleStatement() {
+        createAppointments("100-00-0005", "Budget Fields");
+        List<AppointmentField> fields = List.of(AppointmentField.ID, AppointmentField.DATE);
+
+        List<Map<String, Object>> found = assertMaxStatements(1,
+            () -> hospitalService.getAppointmentFieldsByReason("Budget Fields", fields));
+        Map<String, Object> latest = assertMaxStatements(1,
+            () -> hospitalService.findLatestAppointmentFieldsBySSN("100-00-0005", fields));
+
+        assertEquals(3, found.size());
+        assertEquals("2025-03-15", latest.get("date"));
+    }
+
+    @Test
+    void deleteAppointmentsBySSN_ShouldStayWithinStatementBudget() {
+        createAppointments("100-00-0004", "Budget Delete");
+
+        // Patient lookup, lazy appointments load and one delete per appointment.
+        assertMaxStatements(5, () -> hospitalService.deleteAppointmentsBySSN("100-00-0004"));
+    }
+}
@@ -3,20 +3,30 @@ package nl.gerimedica.assignment.services;
 import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
 import nl.gerimedica.assignment.entities.Appointment;
 import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.feed.AppointmentChangeFeed;
 import nl.gerimedica.assignment.repositories.AppointmentRepository;
 import nl.gerimedica.assignment.repositories.PatientRepository;
+import nl.gerimedica.assignment.services.calendar.BookingCalendar;
 import nl.gerimedica.assignment.services.utils.HospitalUtils;
+import nl.gerimedica.assignment.sharding.ShardRouter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +45,15 @@ class HospitalServiceTest {
     @Mock
     private HospitalUtils hospitalUtils;
 
+    @Mock
+    private AppointmentChangeFeed changeFeed;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.singleShard();
+
+    @Spy
+    private BookingCalendar bookingCalendar = new BookingCalendar();
+
     @InjectMocks
     private HospitalService hospitalService;
 
@@ -88,6 +107,7 @@ class HospitalServiceTest {
         assertEquals(1, result.size());
         verify(patientRepository).save(any(Patient.class));
         verify(appointmentRepository).saveAll(anyList());
+        verify(changeFeed).publish(AppointmentChangeFeed.CREATED, result);
     }
 
     @Test
@@ -100,9 +120,25 @@ class HospitalServiceTest {
         hospitalService.deleteAppointmentsBySSN("123-45-6789");
         
         verify(appointmentRepository).deleteAll(appointments);
+        verify(changeFeed).publish(AppointmentChangeFeed.DELETED, appointments);
         verify(hospitalUtils).recordUsage("Delete appointments by SSN");
     }
 
+    @Test
+    void deleteAppointmentsBySSN_ShouldKeepDaysBookedAfterItReadTheAppointments() {
+        testPatient.setAppointments(List.of(testAppointment, new Appointment("Legacy", "15/02/2025", testPatient)));
+        bookingCalendar.book("123-45-6789", LocalDate.parse("2025-01-15"));
+        when(patientRepository.findBySsn("123-45-6789")).thenReturn(Optional.of(testPatient));
+        // A concurrent bulk create books another day after the delete read the appointments.
+        doAnswer(invocation -> bookingCalendar.tryBook("123-45-6789", List.of(LocalDate.parse("2025-04-01"))))
+            .when(appointmentRepository).deleteAll(anyList());
+
+        hospitalService.deleteAppointmentsBySSN("123-45-6789");
+
+        assertFalse(bookingCalendar.isBooked("123-45-6789", LocalDate.parse("2025-01-15")));
+        assertTrue(bookingCalendar.isBooked("123-45-6789", LocalDate.parse("2025-04-01")));
+    }
+
     @Test
     void findLatestAppointmentBySSN_ShouldReturnLatestAppointment() {
         List<Appointment> appointments = Arrays.asList(testAppointment);
@@ -114,4 +150,101 @@ class HospitalServiceTest {
         assertEquals("Checkup", result.getReason());
         verify(hospitalUtils).recordUsage("Find latest appointment by SSN");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLatestAppointmentBySSN_ConcurrentCalls_ShouldShareOneQuery() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(appointmentRepository.findByPatientSsnOrderByDateDesc("123-45-6789")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return List.of(testAppointment);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Appointment> first = executor.submit(() -> hospitalService.findLatestAppointmentBySSN("123-45-6789"));
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+            Future<Appointment> second = executor.submit(() -> hospitalService.findLatestAppointmentBySSN("123-45-6789"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (hospitalService.getCoalescedReadCount() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(1, hospitalService.getCoalescedReadCount());
+            releaseQuery.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            verify(appointmentRepository, times(1)).findByPatientSsnOrderByDateDesc("123-45-6789");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getAppointmentsByReason_AfterDelete_ShouldNotJoinQueryStartedBeforeIt() throws Exception {
+        testPatient.setAppointments(List.of(testAppointment));
+        when(patientRepository.findBySsn("123-45-6789")).thenReturn(Optional.of(testPatient));
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(appointmentRepository.findByReasonIgnoreCase("Checkup"))
+            .thenAnswer(invocation -> {
+                queryStarted.countDown();
+                releaseQuery.await(5, TimeUnit.SECONDS);
+                return List.of(testAppointment);
+            })
+            .thenReturn(List.of());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Appointment>> stale = executor.submit(() -> hospitalService.getAppointmentsByReason("Checkup"));
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+            hospitalService.deleteAppointmentsBySSN("123-45-6789");
+            List<Appointment> afterDelete = hospitalService.getAppointmentsByReason("CHECKUP");
+            releaseQuery.countDown();
+
+            assertTrue(afterDelete.isEmpty());
+            assertEquals(1, stale.get(5, TimeUnit.SECONDS).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void bulkCreateAppointments_OnAlreadyBookedDay_ShouldThrowWithoutSaving() {
+        bookingCalendar.book("123-45-6789", LocalDate.parse("2025-03-15"));
+        BulkAppointmentsDTO dto = new BulkAppointmentsDTO();
+        dto.setReasons(Arrays.asList("Reason1", "Reason2"));
+        dto.setDates(Arrays.asList("2025-03-14", "2025-03-15"));
+        when(patientRepository.findBySsn("123-45-6789")).thenReturn(Optional.of(testPatient));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> hospitalService.bulkCreateAppointments("Test Patient", "123-45-6789", dto));
+
+        verify(appointmentRepository, never()).saveAll(anyList());
+        assertFalse(bookingCalendar.isBooked("123-45-6789", LocalDate.parse("2025-03-14")));
+    }
+
+    @Test
+    void bulkCreateAppointments_WithSameDayTwice_ShouldThrow() {
+        BulkAppointmentsDTO dto = new BulkAppointmentsDTO();
+        dto.setReasons(Arrays.asList("Reason1", "Reason2"));
+        dto.setDates(Arrays.asList("2025-03-15", "2025-03-15"));
+        when(patientRepository.findBySsn("123-45-6789")).thenReturn(Optional.of(testPatient));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> hospitalService.bulkCreateAppointments("Test Patient", "123-45-6789", dto));
+    }
+
+    @Test
+    void deleteAppointmentsBySSN_ShouldFreeBookedDays() {
+        bookingCalendar.book("123-45-6789", LocalDate.parse("2025-01-15"));
+        testPatient.setAppointments(Arrays.asList(testAppointment));
+        when(patientRepository.findBySsn("123-45-6789")).thenReturn(Optional.of(testPatient));
+
+        hospitalService.deleteAppointmentsBySSN("123-45-6789");
+
+        assertTrue(hospitalService.findBookedDays("123-45-6789", LocalDate.parse("2025-01-01"),
+            LocalDate.parse("2025-12-31")).isEmpty());
+    }
+}
@@ -0,0 +1,63 @@
+package nl.gerimedica.assignment.services.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCalendarTest {
+
+    private final BookingCalendar calendar = new BookingCalendar();
+
+    private static LocalDate day(String date) {
+        return LocalDate.parse(date);
+    }
+
+    @Test
+    void tryBook_WithFreeDays_ShouldBookAll() {
+        List<LocalDate> conflicts = calendar.tryBook("123", List.of(day("2025-01-01"), day("2024-12-31")));
+
+        assertTrue(conflicts.isEmpty());
+        assertTrue(calendar.isBooked("123", day("2025-01-01")));
+        assertTrue(calendar.isBooked("123", day("2024-12-31")));
+        assertFalse(calendar.isBooked("123", day("2025-01-02")));
+        assertFalse(calendar.isBooked("456", day("2025-01-01")));
+    }
+
+    @Test
+    void tryBook_WithConflict_ShouldBookNothingAndReportConflicts() {
+        calendar.book("123", day("2025-03-01"));
+
+        List<LocalDate> conflicts = calendar.tryBook("123", List.of(day("2025-02-28"), day("2025-03-01")));
+
+        assertEquals(List.of(day("2025-03-01")), conflicts);
+        assertFalse(calendar.isBooked("123", day("2025-02-28")));
+    }
+
+    @Test
+    void bookedDays_ShouldReturnDaysInRangeAcrossYearBoundary() {
+        calendar.book("123", day("2024-12-31"));
+        calendar.book("123", day("2025-01-02"));
+        calendar.book("123", day("2025-02-01"));
+
+        assertEquals(List.of(day("2024-12-31"), day("2025-01-02")),
+            calendar.bookedDays("123", day("2024-12-30"), day("2025-01-31")));
+    }
+
+    @Test
+    void release_ShouldFreeOnlyGivenDays() {
+        calendar.book("123", day("2023-06-01"));
+        calendar.book("123", day("2024-02-29"));
+        calendar.book("123", day("2024-12-31"));
+
+        calendar.release("123", List.of(day("2024-02-29"), day("2023-06-01")));
+        assertFalse(calendar.isBooked("123", day("2024-02-29")));
+        assertFalse(calendar.isBooked("123", day("2023-06-01")));
+        assertTrue(calendar.isBooked("123", day("2024-12-31")));
+
+        calendar.release("123", List.of(day("2024-12-31")));
+        assertEquals(0, calendar.size());
+    }
+}
@@ -0,0 +1,90 @@
+package nl.gerimedica.assignment.services.export;
+
+import nl.gerimedica.assignment.dto.AppointmentExportFilter;
+import nl.gerimedica.assignment.dto.AppointmentExportRow;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.services.utils.HospitalUtils;
+import nl.gerimedica.assignment.sharding.ShardRouter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentExportServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private HospitalUtils hospitalUtils;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.singleShard();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AppointmentExportService exportService;
+
+    @Test
+    void export_AsCsv_ShouldWriteHeaderAndEscapedRows() throws Exception {
+        when(appointmentRepository.streamForExport(null, null, null)).thenReturn(Stream.of(
+                new AppointmentExportRow(1L, "Checkup", "2025-01-15", "Doe, John", "123-45-6789"),
+                new AppointmentExportRow(2L, "Said \"hi\"", "2025-02-15", "Jane", "987-65-4321")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exportService.export(null, ExportFormat.CSV, Channels.newChannel(out));
+
+        assertEquals(2, result.rows());
+        assertEquals(out.size(), result.bytes());
+        assertEquals(AppointmentExportService.HEADER + "\n"
+                + "1,Checkup,2025-01-15,\"Doe, John\",123-45-6789\n"
+                + "2,\"Said \"\"hi\"\"\",2025-02-15,Jane,987-65-4321\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(hospitalUtils).recordUsage("Export appointments");
+    }
+
+    @Test
+    void export_AsGzip_ShouldStreamMoreRowsThanOneBuffer() throws Exception {
+        when(appointmentRepository.streamForExport("2025-01-01", "2025-12-31", "Checkup"))
+                .thenReturn(LongStream.rangeClosed(1, 20_000)
+                        .mapToObj(i -> new AppointmentExportRow(i, "Checkup", "2025-01-15", "Patient", "123")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exportService.export(
+                new AppointmentExportFilter("2025-01-01", "2025-12-31", " Checkup "), ExportFormat.CSV_GZIP,
+                Channels.newChannel(out));
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(20_000, result.rows());
+        assertEquals(20_001, csv.lines().count());
+        assertTrue(csv.endsWith("20000,Checkup,2025-01-15,Patient,123\n"));
+    }
+
+    @Test
+    void fromParam_WithUnknownFormat_ShouldThrow() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParam(null));
+        assertEquals(ExportFormat.CSV_GZIP, ExportFormat.fromParam("CSV.GZ"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParam("xlsx"));
+    }
+}
@@ -0,0 +1,88 @@
+package nl.gerimedica.assignment.services.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ConcurrentCallsForSameKey_ShouldShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<String> second = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+            Future<String> third = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+            while (singleFlight.getCoalescedCount() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            assertEquals("result", second.get(5, TimeUnit.SECONDS));
+            assertEquals("result", third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_AfterForget_ShouldStartFreshCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "before write";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            singleFlight.forget("key");
+
+            assertEquals("after write", singleFlight.execute("key", () -> "after write"));
+            release.countDown();
+            assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateAndNotCache() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package nl.gerimedica.assignment.sharding;
+
+import nl.gerimedica.assignment.AssignmentApplication;
+import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
+import nl.gerimedica.assignment.services.HospitalService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write throughput with 1, 2 and 4 embedded H2 shards and the same total number
+ * of pooled connections. Slow, so only runs with
+ * SHARD_BENCHMARK=true, e.g. {@code SHARD_BENCHMARK=true gradle test --tests '*ShardThroughput*'}.
+ */
+@EnabledIfEnvironmentVariable(named = "SHARD_BENCHMARK", matches = "true")
+class ShardThroughputBenchmarkTest {
+
+    private static final int THREADS = 16;
+    // Split evenly over the shards so every run has the same number of connections.
+    private static final int TOTAL_CONNECTIONS = 16;
+    private static final int PATIENTS = 4000;
+    private static final int APPOINTMENTS_PER_PATIENT = 5;
+
+    @Test
+    void bulkCreateThroughputByShardCount() throws Exception {
+        List<String> report = new ArrayList<>();
+        // Warm-up run so JIT compilation does not count against the first measurement.
+        measure(1);
+        for (int shards : new int[] { 1, 2, 4 }) {
+            double perSecond = measure(shards);
+            report.add(String.format("%d shard(s): %.0f patients/sec (%.0f appointments/sec)", shards, perSecond,
+                perSecond * APPOINTMENTS_PER_PATIENT));
+            assertTrue(perSecond > 0);
+        }
+        report.forEach(System.out::println);
+    }
+
+    private double measure(int shards) throws Exception {
+        String urls = IntStream.range(0, shards)
+            .mapToObj(i -> "jdbc:h2:mem:benchmark-" + System.nanoTime() + "-" + i)
+            .collect(Collectors.joining(","));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AssignmentApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("sharding.urls=" + urls, "logging.level.root=WARN",
+                    "spring.datasource.hikari.maximum-pool-size=" + TOTAL_CONNECTIONS / shards)
+                .run()) {
+            HospitalService service = context.getBean(HospitalService.class);
+            BulkAppointmentsDTO payload = new BulkAppointmentsDTO();
+            payload.setReasons(Arrays.asList("Bench", "Bench", "Bench", "Bench", "Bench"));
+            payload.setDates(Arrays.asList("2025-01-01", "2025-01-02", "2025-01-03", "2025-01-04", "2025-01-05"));
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < PATIENTS; i++) {
+                    String ssn = "bench-" + i;
+                    futures.add(executor.submit(() -> service.bulkCreateAppointments("Bench", ssn, payload)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                return PATIENTS / ((System.nanoTime() - start) / 1e9);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
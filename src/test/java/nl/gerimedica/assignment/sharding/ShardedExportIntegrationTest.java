@@ -0,0 +1,60 @@
+package nl.gerimedica.assignment.sharding;
+
+import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
+import nl.gerimedica.assignment.services.HospitalService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Open-in-view is forced on: the export must read every shard even when the request
+// thread already has an EntityManager bound to it.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "sharding.urls=jdbc:h2:mem:sharded-http-0,jdbc:h2:mem:sharded-http-1,jdbc:h2:mem:sharded-http-2",
+    "spring.jpa.open-in-view=true"
+})
+class ShardedExportIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Test
+    void exportOverHttp_ShouldIncludeRowsFromEveryShard() {
+        List<String> ssns = IntStream.range(0, 12).mapToObj(i -> "305-00-" + i).toList();
+        for (String ssn : ssns) {
+            BulkAppointmentsDTO dto = new BulkAppointmentsDTO();
+            dto.setReasons(Arrays.asList("Http Export"));
+            dto.setDates(Arrays.asList("2025-07-01"));
+            hospitalService.bulkCreateAppointments("Patient " + ssn, ssn, dto);
+        }
+        assertEquals(3, ssns.stream().map(shardRouter::shardFor).distinct().count());
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/api/appointments/export?reason=Http Export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<String> rows = response.getBody().lines().skip(1).toList();
+        assertEquals(12, rows.size());
+        assertEquals(ssns.stream().sorted().toList(), rows.stream().map(row -> row.substring(row.lastIndexOf(',') + 1)).sorted().toList());
+    }
+}
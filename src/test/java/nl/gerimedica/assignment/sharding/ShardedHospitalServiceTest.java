@@ -0,0 +1,156 @@
+package nl.gerimedica.assignment.sharding;
+
+import nl.gerimedica.assignment.dto.AppointmentExportFilter;
+import nl.gerimedica.assignment.dto.BulkAppointmentsDTO;
+import nl.gerimedica.assignment.entities.Appointment;
+import nl.gerimedica.assignment.entities.Patient;
+import nl.gerimedica.assignment.repositories.AppointmentRepository;
+import nl.gerimedica.assignment.repositories.PatientRepository;
+import nl.gerimedica.assignment.services.HospitalService;
+import nl.gerimedica.assignment.services.export.AppointmentExportService;
+import nl.gerimedica.assignment.services.export.ExportFormat;
+import nl.gerimedica.assignment.sql.SqlStatistics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static nl.gerimedica.assignment.sql.SqlBudget.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "sharding.urls=jdbc:h2:mem:sharded-test-0,jdbc:h2:mem:sharded-test-1,jdbc:h2:mem:sharded-test-2",
+    "sharding.shard-count=3"
+})
+class ShardedHospitalServiceTest {
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private AppointmentExportService exportService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private void createAppointment(String ssn, String reason) {
+        BulkAppointmentsDTO dto = new BulkAppointmentsDTO();
+        dto.setReasons(Arrays.asList(reason));
+        dto.setDates(Arrays.asList("2025-04-01"));
+        hospitalService.bulkCreateAppointments("Patient " + ssn, ssn, dto);
+    }
+
+    private List<Integer> shardsHolding(String ssn) {
+        return IntStream.range(0, shardRouter.getPhysicalShardCount())
+            .filter(shard -> shardRouter.onShard(shard, () -> patientRepository.findBySsn(ssn)).isPresent())
+            .boxed()
+            .toList();
+    }
+
+    @Test
+    void bulkCreateAppointments_ShouldStorePatientOnOwningShardOnly() {
+        for (int i = 0; i < 12; i++) {
+            String ssn = "300-00-" + i;
+            createAppointment(ssn, "Placement");
+
+            assertEquals(List.of(shardRouter.shardFor(ssn)), shardsHolding(ssn));
+            assertEquals("Placement", hospitalService.findLatestAppointmentBySSN(ssn).getReason());
+        }
+    }
+
+    @Test
+    void getAppointmentsByReason_ShouldMergeResultsFromAllShards() {
+        List<String> ssns = IntStream.range(0, 12).mapToObj(i -> "301-00-" + i).toList();
+        ssns.forEach(ssn -> createAppointment(ssn, "Scatter Gather"));
+        assertTrue(ssns.stream().map(shardRouter::shardFor).distinct().count() > 1);
+
+        List<Appointment> found = hospitalService.getAppointmentsByReason("scatter gather");
+
+        assertEquals(12, found.size());
+        assertEquals(12, found.stream().map(Appointment::getId).distinct().count());
+        assertEquals(ssns.stream().sorted().toList(),
+            found.stream().map(a -> a.getPatient().getSsn()).sorted().toList());
+    }
+
+    @Test
+    void getAppointmentsByReason_ShouldCountStatementsOfEveryShard() {
+        IntStream.range(0, 12).forEach(i -> createAppointment("307-00-" + i, "Scatter Budget"));
+
+        SqlStatistics.Snapshot start = SqlStatistics.snapshot();
+        List<Appointment> found = assertMaxStatements(3,
+            () -> hospitalService.getAppointmentsByReason("Scatter Budget"));
+        SqlStatistics.Snapshot used = SqlStatistics.snapshot().since(start);
+
+        assertEquals(12, found.size());
+        // One query per shard, run on the scatter threads but attributed to the caller.
+        assertEquals(3, used.statements());
+        assertEquals(12, used.rows());
+    }
+
+    @Test
+    void deleteAppointmentsBySSN_ShouldDeleteOnOwningShard() {
+        createAppointment("302-00-1", "Sharded Delete");
+
+        hospitalService.deleteAppointmentsBySSN("302-00-1");
+
+        assertNull(hospitalService.findLatestAppointmentBySSN("302-00-1"));
+    }
+
+    @Test
+    void export_ShouldIncludeRowsFromEveryShard() throws Exception {
+        IntStream.range(0, 9).forEach(i -> createAppointment("303-00-" + i, "Sharded Export"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(new AppointmentExportFilter(null, null, "Sharded Export"),
+            ExportFormat.CSV, Channels.newChannel(out));
+
+        assertEquals(10, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    void rebalance_ShouldMoveMisplacedPatientsWithTheirAppointments() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<String> ssns = IntStream.range(0, 10).mapToObj(i -> "304-00-" + i).toList();
+        for (String ssn : ssns) {
+            // Place every patient one shard away from its owner, as after changing the shard count.
+            int wrongShard = (shardRouter.shardFor(ssn) + 1) % shardRouter.getShardCount();
+            shardRouter.onShard(wrongShard, () -> transaction.execute(status -> {
+                Patient patient = patientRepository.save(new Patient("Moved " + ssn, ssn));
+                appointmentRepository.save(new Appointment("Rebalance", "2025-05-01", patient));
+                appointmentRepository.save(new Appointment("Rebalance", "2025-06-01", patient));
+                return null;
+            }));
+        }
+
+        assertTrue(rebalancer.rebalance() >= ssns.size());
+
+        for (String ssn : ssns) {
+            assertEquals(List.of(shardRouter.shardFor(ssn)), shardsHolding(ssn));
+            Appointment latest = hospitalService.findLatestAppointmentBySSN(ssn);
+            assertEquals("2025-06-01", latest.getDate());
+            assertEquals("Moved " + ssn, latest.getPatient().getName());
+        }
+        assertEquals(0, rebalancer.rebalance());
+    }
+}
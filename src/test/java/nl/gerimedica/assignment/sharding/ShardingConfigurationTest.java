@@ -0,0 +1,35 @@
+package nl.gerimedica.assignment.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingConfigurationTest {
+
+    @Test
+    void shardRoutingDataSource_ShouldApplyHikariSettingsToEveryShard() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("spring.datasource.hikari.maximum-pool-size", "4")
+            .withProperty("spring.datasource.hikari.connection-timeout", "5000");
+
+        try (ShardRoutingDataSource routing = (ShardRoutingDataSource) new ShardingConfiguration()
+                .shardRoutingDataSource(List.of("jdbc:h2:mem:pool-0", "jdbc:h2:mem:pool-1"), "sa", "", "org.h2.Driver",
+                    environment)) {
+            routing.afterPropertiesSet();
+
+            for (DataSource shard : routing.getResolvedDataSources().values()) {
+                HikariDataSource pool = (HikariDataSource) shard;
+                assertEquals(4, pool.getMaximumPoolSize());
+                assertEquals(5000, pool.getConnectionTimeout());
+                assertTrue(pool.getPoolName().startsWith("shard-"));
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nl.gerimedica.assignment.sql;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test helper asserting how many SQL statements an operation may execute on the
+ * calling thread. Requires the application context, so the DataSource is wrapped
+ * by {@link SqlStatisticsDataSource}.
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static <T> T assertMaxStatements(int maxStatements, Supplier<T> operation) {
+        SqlStatistics.Snapshot start = SqlStatistics.snapshot();
+        T result = operation.get();
+        SqlStatistics.Snapshot used = SqlStatistics.snapshot().since(start);
+        assertTrue(used.statements() <= maxStatements, () -> "Expected at most " + maxStatements
+                + " SQL statements but " + used.statements() + " were executed (" + used.rows() + " rows fetched)");
+        return result;
+    }
+
+    public static void assertMaxStatements(int maxStatements, Runnable operation) {
+        assertMaxStatements(maxStatements, () -> {
+            operation.run();
+            return null;
+        });
+    }
+}